@@ -0,0 +1,236 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tiwindetea.magicmetro.model.Passenger;
+import org.tiwindetea.magicmetro.model.Station;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.lines.Line;
+import org.tiwindetea.magicmetro.model.routing.RouteHierarchy;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+import org.tiwindetea.magicmetro.model.routing.StationGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routing benchmarks on synthetic networks.<p>
+ * Measure the station graph snapshots, the full and incremental routing table computations, the next hop queries
+ * and the route resolution of every waiting passenger, which replaced the path finding and path recomputation of the
+ * game map, in flat and hierarchical modes. Run with {@code -prof gc} to get the allocation rate.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+
+	private static final long SEED = 42;
+	private static final int PASSENGERS_PER_STATION = 4;
+
+	@Param({"10", "100", "1000", "10000"})
+	public int stationsNumber;
+
+	private SyntheticNetwork network;
+	private StationGraph graph;
+	private RouteHierarchy hierarchy;
+	private RoutingTable routingTable;
+	private StationGraph extendedGraph;
+	private List<Station> touchedStations;
+	private List<Passenger> passengers;
+	private Station[] queryStations;
+	private StationType[] queryTypes;
+	private int queryIndex;
+
+	/**
+	 * Generate the network, its hierarchy, its routing table and a one station extension of one of its lines.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		this.network = new SyntheticNetwork(this.stationsNumber, SEED);
+		this.graph = this.network.createStationGraph();
+		this.hierarchy = new RouteHierarchy(this.graph);
+		this.routingTable = new RoutingTable(this.graph, 0);
+
+		Random random = this.network.getRandom();
+		this.passengers = new ArrayList<>();
+		for(Station station : this.network.getStations()) {
+			for(int i = 0; i < PASSENGERS_PER_STATION; ++i) {
+				Passenger passenger = new Passenger(station, randomType(random, station));
+				station.addPassenger(passenger);
+				this.passengers.add(passenger);
+			}
+		}
+
+		this.queryStations = new Station[1024];
+		this.queryTypes = new StationType[this.queryStations.length];
+		for(int i = 0; i < this.queryStations.length; ++i) {
+			this.queryStations[i] = this.network.getStations().get(random.nextInt(this.stationsNumber));
+			this.queryTypes[i] = randomType(random, this.queryStations[i]);
+		}
+
+		for(Line line : this.network.getLines()) {
+			this.touchedStations = this.network.extendLine(line);
+			if(this.touchedStations != null) {
+				break;
+			}
+		}
+		if(this.touchedStations == null) {
+			throw new IllegalStateException("No line of the network can be extended");
+		}
+		this.extendedGraph = this.network.createStationGraph();
+	}
+
+	private static StationType randomType(Random random, Station station) {
+		StationType type;
+		do {
+			type = StationType.values()[random.nextInt(StationType.values().length)];
+		} while(type == station.getType());
+		return type;
+	}
+
+	/**
+	 * Snapshot the network in a station graph.
+	 *
+	 * @return the station graph
+	 */
+	@Benchmark
+	public StationGraph stationGraph() {
+		return this.network.createStationGraph();
+	}
+
+	/**
+	 * Compute a routing table from scratch.
+	 *
+	 * @return the routing table
+	 */
+	@Benchmark
+	public RoutingTable fullRoutingTable() {
+		return new RoutingTable(this.graph, 1);
+	}
+
+	/**
+	 * Repair a routing table after a line extension.
+	 *
+	 * @return the routing table
+	 */
+	@Benchmark
+	public RoutingTable incrementalRoutingTable() {
+		return new RoutingTable(this.routingTable, this.extendedGraph, this.touchedStations, 1);
+	}
+
+	/**
+	 * Contract the chains of the network.
+	 *
+	 * @return the hierarchy
+	 */
+	@Benchmark
+	public RouteHierarchy routeHierarchy() {
+		return new RouteHierarchy(this.graph);
+	}
+
+	/**
+	 * Compute a routing table from scratch on the hierarchy of the network.
+	 *
+	 * @return the routing table
+	 */
+	@Benchmark
+	public RoutingTable fullHierarchicalRoutingTable() {
+		return new RoutingTable(this.hierarchy, 1);
+	}
+
+	/**
+	 * Repair a routing table after a line extension on the hierarchy of the network, including the contraction of
+	 * the new graph.
+	 *
+	 * @return the routing table
+	 */
+	@Benchmark
+	public RoutingTable incrementalHierarchicalRoutingTable() {
+		return new RoutingTable(this.routingTable,
+		  new RouteHierarchy(this.extendedGraph),
+		  this.touchedStations,
+		  1);
+	}
+
+	/**
+	 * Query the next hop of a passenger.
+	 *
+	 * @return the next node
+	 */
+	@Benchmark
+	public int nextNode() {
+		int i = this.queryIndex++ & (this.queryStations.length - 1);
+		return this.routingTable.getNextNode(this.queryStations[i], this.queryTypes[i]);
+	}
+
+	/**
+	 * Extract a full path from the routing table.
+	 *
+	 * @return the path
+	 */
+	@Benchmark
+	public List<Station> path() {
+		int i = this.queryIndex++ & (this.queryStations.length - 1);
+		return this.routingTable.getPath(this.queryStations[i], this.queryTypes[i]);
+	}
+
+	/**
+	 * Resolve the route of every waiting passenger, what the game map did on each network change before the routing
+	 * tables.
+	 *
+	 * @param blackhole the blackhole
+	 */
+	@Benchmark
+	public void resolveAllPassengers(Blackhole blackhole) {
+		long version = this.routingTable.getVersion() + 1;
+		for(Passenger passenger : this.passengers) {
+			passenger.setRoute(version,
+			  this.routingTable.getNextNode(passenger.getStation(), passenger.getWantedStation()));
+		}
+		blackhole.consume(this.passengers);
+	}
+
+}
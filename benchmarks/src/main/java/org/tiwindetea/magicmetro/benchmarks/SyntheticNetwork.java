@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.benchmarks;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.global.IdGenerator;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineCreationEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineExtensionEvent;
+import org.tiwindetea.magicmetro.model.Station;
+import org.tiwindetea.magicmetro.model.StationManager;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.lines.Line;
+import org.tiwindetea.magicmetro.model.routing.StationGraph;
+import org.tiwindetea.magicmetro.model.routing.TravelTimeCostFunction;
+import org.tiwindetea.magicmetro.view.LineView;
+import org.tiwindetea.magicmetro.view.StationView;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Synthetic network for the benchmarks, built with the real lines, sections and connections.<p>
+ * The stations are put on a jittered grid, the lines are random walks between neighbour stations of the grid.
+ * The number of lines grows with the square root of the number of stations (3 lines for 10 stations, 50 lines for
+ * 10,000 stations) and each line has one to three trains.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class SyntheticNetwork {
+
+	private static final double STATIONS_SPACING = 80;
+	private static final double STATIONS_JITTER = 20;
+	private static final StationType[] COMMON_TYPES = {StationType.CIRCLE, StationType.TRIANGLE, StationType.SQUARE};
+	private static final double RARE_TYPE_PROBABILITY = 0.1;
+
+	private final Random random;
+	private final int gridSize;
+	private final List<Station> stations = new ArrayList<>();
+	private final List<Line> lines = new ArrayList<>();
+	private final Map<Line, Integer> trainsNumbers = new HashMap<>();
+	private final Map<Line, List<Station>> linesStations = new HashMap<>();
+
+	private static final StationManager STATION_MANAGER = new StationManager() {
+		@Override
+		public void addWarnedStation(Station station) {
+			// nothing to do
+		}
+
+		@Override
+		public void removeWarnedStation(Station station) {
+			// nothing to do
+		}
+
+		@Override
+		public long getTime() {
+			return 0;
+		}
+	};
+
+	/**
+	 * Instantiates a new SyntheticNetwork.
+	 *
+	 * @param stationsNumber the number of stations
+	 * @param seed           the seed of the random generator
+	 */
+	public SyntheticNetwork(int stationsNumber, long seed) {
+		this.random = new Random(seed);
+		this.gridSize = (int) Math.ceil(Math.sqrt(stationsNumber));
+
+		for(int i = 0; i < stationsNumber; ++i) {
+			StationType type = (this.random.nextDouble() < RARE_TYPE_PROBABILITY) ?
+			  StationType.values()[this.random.nextInt(StationType.values().length)] :
+			  COMMON_TYPES[this.random.nextInt(COMMON_TYPES.length)];
+			Point2d position = new Point2d(
+			  (i % this.gridSize) * STATIONS_SPACING + (this.random.nextDouble() - 0.5) * STATIONS_JITTER,
+			  (i / this.gridSize) * STATIONS_SPACING + (this.random.nextDouble() - 0.5) * STATIONS_JITTER);
+			this.stations.add(new Station(position, type, new BenchmarkStationView(), STATION_MANAGER));
+		}
+
+		int linesNumber = Math.max(3, Math.min(50, (int) Math.round(Math.sqrt(stationsNumber) / 2)));
+		int lineLength = Math.max(2, (3 * stationsNumber) / (2 * linesNumber));
+		for(int i = 0; i < linesNumber; ++i) {
+			addLine(lineLength);
+		}
+	}
+
+	private void addLine(int length) {
+		Line line = new Line(new BenchmarkLineView(), deletedLine -> {
+			// lines are never deleted
+		});
+		List<Station> lineStations = new ArrayList<>();
+		Set<Integer> visited = new HashSet<>();
+
+		int current = this.random.nextInt(this.stations.size());
+		visited.add(current);
+		lineStations.add(this.stations.get(current));
+		while(lineStations.size() < length) {
+			int next = randomNeighbour(current, visited);
+			if(next < 0) {
+				break;
+			}
+			Station from = this.stations.get(current);
+			Station to = this.stations.get(next);
+			if(lineStations.size() == 1) {
+				line.manage(new LineCreationEvent(line.gameId,
+				  IdGenerator.newId(),
+				  from.gameId,
+				  to.gameId,
+				  middle(from, to)), this.stations);
+			}
+			else {
+				line.manage(new LineExtensionEvent(line.gameId,
+				  IdGenerator.newId(),
+				  from.gameId,
+				  to.gameId,
+				  middle(from, to)), this.stations);
+			}
+			visited.add(next);
+			lineStations.add(to);
+			current = next;
+		}
+
+		if(lineStations.size() > 1) {
+			this.lines.add(line);
+			this.linesStations.put(line, lineStations);
+			this.trainsNumbers.put(line, 1 + this.random.nextInt(3));
+		}
+	}
+
+	private int randomNeighbour(int index, @Nonnull Set<Integer> visited) {
+		int x = index % this.gridSize;
+		int y = index / this.gridSize;
+		int[] neighbours = new int[8];
+		int neighboursNumber = 0;
+		for(int dx = -1; dx <= 1; ++dx) {
+			for(int dy = -1; dy <= 1; ++dy) {
+				int neighbour = (y + dy) * this.gridSize + (x + dx);
+				if((dx != 0 || dy != 0)
+				  && x + dx >= 0 && x + dx < this.gridSize && y + dy >= 0
+				  && neighbour < this.stations.size()
+				  && !visited.contains(neighbour)) {
+					neighbours[neighboursNumber++] = neighbour;
+				}
+			}
+		}
+		return (neighboursNumber == 0) ? -1 : neighbours[this.random.nextInt(neighboursNumber)];
+	}
+
+	private static Point2d middle(@Nonnull Station from, @Nonnull Station to) {
+		return new Point2d((from.getPosition().getX() + to.getPosition().getX()) / 2,
+		  (from.getPosition().getY() + to.getPosition().getY()) / 2);
+	}
+
+	/**
+	 * Extend a line by one station at its end, like a player dragging the line.
+	 *
+	 * @param line the line
+	 * @return the stations touched by the change, or null if the line can't be extended
+	 */
+	public List<Station> extendLine(@Nonnull Line line) {
+		List<Station> lineStations = this.linesStations.get(line);
+		Station from = lineStations.get(lineStations.size() - 1);
+		Set<Integer> visited = new HashSet<>();
+		for(Station station : lineStations) {
+			visited.add(this.stations.indexOf(station));
+		}
+		int next = randomNeighbour(this.stations.indexOf(from), visited);
+		if(next < 0) {
+			return null;
+		}
+		Station to = this.stations.get(next);
+		line.manage(new LineExtensionEvent(line.gameId,
+		  IdGenerator.newId(),
+		  from.gameId,
+		  to.gameId,
+		  middle(from, to)), this.stations);
+		lineStations.add(to);
+		return new ArrayList<>(lineStations);
+	}
+
+	/**
+	 * Create a station graph snapshot of the network, weighted like in the game.
+	 *
+	 * @return the station graph
+	 */
+	@Nonnull
+	public StationGraph createStationGraph() {
+		return new StationGraph(this.stations, this.lines, this.trainsNumbers, new TravelTimeCostFunction());
+	}
+
+	/**
+	 * Gets the stations.
+	 *
+	 * @return the stations
+	 */
+	@Nonnull
+	public List<Station> getStations() {
+		return this.stations;
+	}
+
+	/**
+	 * Gets the lines.
+	 *
+	 * @return the lines
+	 */
+	@Nonnull
+	public List<Line> getLines() {
+		return this.lines;
+	}
+
+	/**
+	 * Gets the random generator of the network.
+	 *
+	 * @return the random generator
+	 */
+	@Nonnull
+	public Random getRandom() {
+		return this.random;
+	}
+
+	private static class BenchmarkStationView implements StationView {
+
+		private final int gameId = IdGenerator.newId();
+
+		@Override
+		public int getGameId() {
+			return this.gameId;
+		}
+
+		@Override
+		public void setPosition(@Nonnull Point2d position) {
+			// nothing to display
+		}
+
+		@Override
+		public void addPassenger(@Nonnull StationType wantedStation) {
+			// nothing to display
+		}
+
+		@Override
+		public void removePassenger(@Nonnull StationType wantedStation) {
+			// nothing to display
+		}
+
+		@Override
+		public void makeBigger() {
+			// nothing to display
+		}
+
+		@Override
+		public void warn(long warnStart, long warnEnd) {
+			// nothing to display
+		}
+
+		@Override
+		public void unWard() {
+			// nothing to display
+		}
+	}
+
+	private static class BenchmarkLineView implements LineView {
+
+		private final int gameId = IdGenerator.newId();
+
+		@Override
+		public int getGameId() {
+			return this.gameId;
+		}
+
+		@Override
+		public void deleteSection(int sectionId) {
+			// nothing to display
+		}
+	}
+
+}
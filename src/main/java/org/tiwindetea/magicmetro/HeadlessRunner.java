@@ -0,0 +1,403 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.global.GameContext;
+import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
+import org.tiwindetea.magicmetro.global.eventdispatcher.EventStatistics;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.GameExitEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineCreationEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineExtensionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.StationUpgradeInventoryMoveEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.TrainInventoryMoveEvent;
+import org.tiwindetea.magicmetro.global.scripts.MapScript;
+import org.tiwindetea.magicmetro.global.scripts.MapScripts;
+import org.tiwindetea.magicmetro.model.GameManager;
+import org.tiwindetea.magicmetro.model.MovementMode;
+import org.tiwindetea.magicmetro.model.Simulation;
+import org.tiwindetea.magicmetro.model.journal.EventJournalReplay;
+import org.tiwindetea.magicmetro.model.journal.EventJournalWriter;
+import org.tiwindetea.magicmetro.model.journal.JournalViewFactory;
+import org.tiwindetea.magicmetro.view.headless.HeadlessStationView;
+import org.tiwindetea.magicmetro.view.headless.HeadlessViewFactory;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless runner, simulate games at maximum speed without JavaFX.<p>
+ * Usage: {@code HeadlessRunner [-map name] [-commands file] [-duration seconds] [-games number]
+ * [-movement ticks|events] [-seed number] [-threads number] [-eventStats micros] [-journal file]
+ * [-replay file]}, the trains move in the {@link MovementMode#EVENTS} mode by default. The game {@code i} is seeded
+ * with {@code seed + i}, the seed is 0 by default, and its routing tables are computed synchronously, so the runs
+ * are reproducible. Each game has its own {@link GameContext}, the games are run in parallel by the given number of
+ * threads, 1 by default. With {@code -eventStats}, the {@link EventStatistics} of each game are printed after its
+ * result, the listener calls longer than the given microseconds are listed. With {@code -journal}, the events of the
+ * game {@code i} are recorded in the file {@code file-i} by an {@link EventJournalWriter}. With {@code -replay}, the
+ * game recorded in the journal file is replayed instead, with the map and seed of the journal.<p>
+ * The commands file describes the actions of the player, one command per line, {@code #} starts a comment:
+ * <ul>
+ * <li>{@code <seconds> line <line> <station> <station> [<station>...]} build the sections between the stations
+ * on the line, the first station must be an end of the line if the line already exists</li>
+ * <li>{@code <seconds> train <line>} put a train of the inventory on the line</li>
+ * <li>{@code <seconds> upgrade <station>} use a station upgrade of the inventory on the station</li>
+ * </ul>
+ * Lines and stations are the indices of their creation order in the game, the stations of the map script
+ * appearing at the beginning of the game come first.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class HeadlessRunner {
+
+	private static final long DEFAULT_DURATION_SECONDS = 600;
+	private static final String USAGE = "usage: HeadlessRunner [-map name] [-commands file] [-duration seconds]"
+	  + " [-games number] [-movement ticks|events] [-seed number] [-threads number] [-eventStats micros]"
+	  + " [-journal file] [-replay file]";
+
+	private static class Command {
+
+		final long time; // millis
+		final String name;
+		final int[] arguments;
+
+		Command(long time, String name, int[] arguments) {
+			this.time = time;
+			this.name = name;
+			this.arguments = arguments;
+		}
+	}
+
+	private final MapScript mapScript;
+	private final List<Command> commands;
+	private final long duration; // millis
+	private final MovementMode movementMode;
+	private final long seed;
+	private final long slowListenerThreshold; // nanoseconds, negative if the events are not measured
+	private final String journalFile; // null if the games are not recorded
+
+	/**
+	 * Instantiates a new HeadlessRunner.
+	 *
+	 * @param mapScript             the map script, copied for each game
+	 * @param commands              the commands, sorted by time
+	 * @param duration              the maximum duration of a game as millis of simulation time
+	 * @param movementMode          the movement mode of the trains
+	 * @param seed                  the seed of the first game
+	 * @param slowListenerThreshold the slow listener threshold of the event statistics as nanoseconds, negative
+	 *                              to not measure the events
+	 * @param journalFile           the prefix of the journal files of the games, null to not record the games
+	 */
+	private HeadlessRunner(MapScript mapScript,
+	                       List<Command> commands,
+	                       long duration,
+	                       MovementMode movementMode,
+	                       long seed,
+	                       long slowListenerThreshold,
+	                       String journalFile) {
+		this.mapScript = mapScript;
+		this.commands = commands;
+		this.duration = duration;
+		this.movementMode = movementMode;
+		this.seed = seed;
+		this.slowListenerThreshold = slowListenerThreshold;
+		this.journalFile = journalFile;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+		String mapName = null;
+		String commandsFile = null;
+		long duration = DEFAULT_DURATION_SECONDS;
+		int games = 1;
+		MovementMode movementMode = MovementMode.EVENTS;
+		long seed = 0;
+		int threads = 1;
+		long slowListenerThreshold = -1;
+		String journalFile = null;
+		String replayFile = null;
+		if(args.length % 2 != 0) {
+			throw new IllegalStateException("option " + args[args.length - 1] + " has no value, " + USAGE);
+		}
+		for(int i = 0; i < args.length; i += 2) {
+			switch(args[i]) {
+			case "-map":
+				mapName = args[i + 1];
+				break;
+			case "-commands":
+				commandsFile = args[i + 1];
+				break;
+			case "-duration":
+				duration = Long.parseLong(args[i + 1]);
+				break;
+			case "-games":
+				games = Integer.parseInt(args[i + 1]);
+				break;
+			case "-movement":
+				movementMode = MovementMode.valueOf(args[i + 1].toUpperCase());
+				break;
+			case "-seed":
+				seed = Long.parseLong(args[i + 1]);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(args[i + 1]);
+				break;
+			case "-eventStats":
+				slowListenerThreshold = Long.parseLong(args[i + 1]) * 1000;
+				break;
+			case "-journal":
+				journalFile = args[i + 1];
+				break;
+			case "-replay":
+				replayFile = args[i + 1];
+				break;
+			default:
+				throw new IllegalStateException("unknown option " + args[i] + ", " + USAGE);
+			}
+		}
+
+		if(replayFile != null) {
+			long start = System.currentTimeMillis();
+			System.out.println(replayGame(replayFile, slowListenerThreshold));
+			System.out.println("game replayed in " + (System.currentTimeMillis() - start) + " ms");
+			return;
+		}
+
+		MapScript mapScript = findMapScript(mapName);
+		List<Command> commands = (commandsFile == null) ? Collections.<Command>emptyList() : readCommands(commandsFile);
+
+		HeadlessRunner runner = new HeadlessRunner(mapScript,
+		  commands,
+		  duration * 1000,
+		  movementMode,
+		  seed,
+		  slowListenerThreshold,
+		  journalFile);
+		long start = System.currentTimeMillis();
+		ExecutorService executorService = Executors.newFixedThreadPool(Math.max(threads, 1));
+		try {
+			List<Future<String>> results = new ArrayList<>(games);
+			for(int i = 0; i < games; ++i) {
+				int game = i;
+				results.add(executorService.submit(() -> runner.runGame(game)));
+			}
+			for(Future<String> result : results) {
+				System.out.println(result.get());
+			}
+		} finally {
+			executorService.shutdown();
+		}
+		System.out.println(games + " games simulated in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	private static MapScript findMapScript(String mapName) {
+		MapScript mapScript = null;
+		for(MapScript script : MapScripts.createMapScripts()) {
+			if((mapScript == null && mapName == null) || script.mapName.equals(mapName)) {
+				mapScript = script;
+			}
+		}
+		if(mapScript == null) {
+			throw new IllegalStateException("unknown map " + mapName);
+		}
+		return mapScript;
+	}
+
+	private static List<Command> readCommands(String file) throws IOException {
+		List<Command> commands = new ArrayList<>();
+		for(String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+			int comment = line.indexOf('#');
+			String[] words = ((comment >= 0) ? line.substring(0, comment) : line).trim().split("\\s+");
+			if(words.length < 2) {
+				continue;
+			}
+			int[] arguments = new int[words.length - 2];
+			for(int i = 0; i < arguments.length; ++i) {
+				arguments[i] = Integer.parseInt(words[i + 2]);
+			}
+			commands.add(new Command((long) (Double.parseDouble(words[0]) * 1000), words[1], arguments));
+		}
+		commands.sort((o1, o2) -> Long.compare(o1.time, o2.time));
+		return commands;
+	}
+
+	private static String replayGame(String file, long slowListenerThreshold) throws IOException {
+		Game currentGame = new Game();
+		EventStatistics eventStatistics = currentGame.measureEvents(slowListenerThreshold);
+		GameManager gameManager;
+		try(InputStream inputStream = new FileInputStream(file)) {
+			EventJournalReplay eventJournalReplay = new EventJournalReplay(inputStream);
+			gameManager = eventJournalReplay.replay(currentGame.gameContext,
+			  currentGame.viewFactory,
+			  findMapScript(eventJournalReplay.getMapName()));
+		}
+		currentGame.gameContext.getEventDispatcher().fire(new GameExitEvent());
+		return currentGame.getResult("replay", gameManager.getSimulation(), eventStatistics);
+	}
+
+	private String runGame(int game) throws IOException {
+		Game currentGame = new Game();
+		EventStatistics eventStatistics = currentGame.measureEvents(this.slowListenerThreshold);
+		MapScript mapScript = new MapScript(this.mapScript);
+		long seed = this.seed + game;
+		EventJournalWriter eventJournalWriter = null;
+		GameManager gameManager;
+		if(this.journalFile != null) {
+			JournalViewFactory journalViewFactory = new JournalViewFactory(currentGame.viewFactory, true);
+			eventJournalWriter = new EventJournalWriter(new FileOutputStream(this.journalFile + "-" + game),
+			  mapScript,
+			  journalViewFactory,
+			  seed);
+			gameManager = new GameManager(currentGame.gameContext,
+			  journalViewFactory,
+			  mapScript,
+			  seed,
+			  eventJournalWriter,
+			  false);
+			eventJournalWriter.record(gameManager);
+		}
+		else {
+			gameManager = new GameManager(currentGame.gameContext, currentGame.viewFactory, mapScript, seed, null, false);
+		}
+		gameManager.getGameMap().setSynchronousRouting(true);
+		Simulation simulation = gameManager.getSimulation();
+		simulation.setMovementMode(this.movementMode);
+
+		int nextCommand = 0;
+		while(!simulation.isEnded() && simulation.getTime() < this.duration) {
+			while(nextCommand < this.commands.size() && this.commands.get(nextCommand).time <= simulation.getTime()) {
+				currentGame.apply(this.commands.get(nextCommand++));
+			}
+			simulation.tick();
+		}
+		currentGame.gameContext.getEventDispatcher().fire(new GameExitEvent());
+		if(eventJournalWriter != null) {
+			// closed by the game exit, throws the exception of the journal if any
+			eventJournalWriter.close();
+		}
+		return currentGame.getResult("game " + game, simulation, eventStatistics);
+	}
+
+	/**
+	 * State of a game of the runner, the player commands are sent to the event dispatcher of the game.
+	 */
+	private static class Game {
+
+		final GameContext gameContext = new GameContext();
+		final HeadlessViewFactory viewFactory = new HeadlessViewFactory(this.gameContext);
+		final Map<Integer, Integer> linesSections = new HashMap<>(); // line index to a section id of the line
+
+		EventStatistics measureEvents(long slowListenerThreshold) {
+			if(slowListenerThreshold < 0) {
+				return null;
+			}
+			EventStatistics eventStatistics = new EventStatistics(slowListenerThreshold);
+			this.gameContext.getEventDispatcher().setStatistics(eventStatistics);
+			return eventStatistics;
+		}
+
+		String getResult(String name, Simulation simulation, EventStatistics eventStatistics) {
+			int waitingPassengers = 0;
+			List<HeadlessStationView> stationViews = this.viewFactory.getStationViews();
+			for(HeadlessStationView stationView : stationViews) {
+				waitingPassengers += stationView.getPassengersNumber();
+			}
+			return name
+			  + ": " + (simulation.isEnded() ? "lost" : "survived")
+			  + " at " + (simulation.getTime() / 1000) + " s"
+			  + ", " + simulation.getTicks() + " ticks"
+			  + ", " + stationViews.size() + " stations"
+			  + ", " + waitingPassengers + " waiting passengers"
+			  + ((eventStatistics == null) ? "" : "\n" + eventStatistics);
+		}
+
+		void apply(Command command) {
+			EventDispatcher eventDispatcher = this.gameContext.getEventDispatcher();
+			switch(command.name) {
+			case "line":
+				int line = command.arguments[0];
+				for(int i = 2; i < command.arguments.length; ++i) {
+					HeadlessStationView from = getStationView(command.arguments[i - 1]);
+					HeadlessStationView to = getStationView(command.arguments[i]);
+					int sectionId = this.gameContext.getIdGenerator().nextId();
+					Point2d middle = new Point2d(
+					  (from.getPosition().getX() + to.getPosition().getX()) / 2,
+					  (from.getPosition().getY() + to.getPosition().getY()) / 2);
+					if(this.linesSections.containsKey(line)) {
+						eventDispatcher.fire(new LineExtensionEvent(
+						  getLineId(line), sectionId, from.gameId, to.gameId, middle));
+					}
+					else {
+						eventDispatcher.fire(new LineCreationEvent(
+						  getLineId(line), sectionId, from.gameId, to.gameId, middle));
+						this.linesSections.put(line, sectionId);
+					}
+				}
+				break;
+			case "train":
+				Integer sectionId = this.linesSections.get(command.arguments[0]);
+				if(sectionId == null) {
+					throw new IllegalStateException("line " + command.arguments[0] + " has no section");
+				}
+				eventDispatcher.fire(new TrainInventoryMoveEvent(
+				  getLineId(command.arguments[0]), sectionId, new Point2d()));
+				break;
+			case "upgrade":
+				eventDispatcher.fire(new StationUpgradeInventoryMoveEvent(getStationView(command.arguments[0]).gameId));
+				break;
+			default:
+				throw new IllegalStateException("unknown command " + command.name);
+			}
+		}
+
+		HeadlessStationView getStationView(int index) {
+			List<HeadlessStationView> stationViews = this.viewFactory.getStationViews();
+			if(index >= stationViews.size()) {
+				throw new IllegalStateException("station " + index + " does not exist yet");
+			}
+			return stationViews.get(index);
+		}
+
+		int getLineId(int index) {
+			return this.viewFactory.getLineViews().get(index).gameId;
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.global;
+
+import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Context of a game, owns the event dispatcher, the time manager and the id generator of the game.<p>
+ * The default context is made of the singleton instances and is used by the graphical game. Each new context is
+ * independent of the others, so several games can run in parallel in the same JVM.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class GameContext {
+
+	private final EventDispatcher eventDispatcher;
+	private final TimeManager timeManager;
+	private final IdGenerator idGenerator;
+
+	/**
+	 * Instantiates a new GameContext, with its own event dispatcher, time manager and id generator.
+	 */
+	public GameContext() {
+		this(new EventDispatcher());
+	}
+
+	private GameContext(@Nonnull EventDispatcher eventDispatcher) {
+		this(eventDispatcher, new TimeManager(eventDispatcher), new IdGenerator());
+	}
+
+	private GameContext(@Nonnull EventDispatcher eventDispatcher,
+	                    @Nonnull TimeManager timeManager,
+	                    @Nonnull IdGenerator idGenerator) {
+		this.eventDispatcher = eventDispatcher;
+		this.timeManager = timeManager;
+		this.idGenerator = idGenerator;
+	}
+
+	private static class GameContextHolder {
+		private final static GameContext DEFAULT = new GameContext(EventDispatcher.getInstance(),
+		  TimeManager.getInstance(),
+		  IdGenerator.getInstance());
+	}
+
+	/**
+	 * Gets the default context, made of the singleton instances.<p>
+	 * The context is created at the first call of this function.
+	 *
+	 * @return the default context
+	 */
+	public static GameContext getDefault() {
+		return GameContext.GameContextHolder.DEFAULT;
+	}
+
+	/**
+	 * Gets the event dispatcher.
+	 *
+	 * @return the event dispatcher
+	 */
+	public EventDispatcher getEventDispatcher() {
+		return this.eventDispatcher;
+	}
+
+	/**
+	 * Gets the time manager.
+	 *
+	 * @return the time manager
+	 */
+	public TimeManager getTimeManager() {
+		return this.timeManager;
+	}
+
+	/**
+	 * Gets the id generator.
+	 *
+	 * @return the id generator
+	 */
+	public IdGenerator getIdGenerator() {
+		return this.idGenerator;
+	}
+
+}
@@ -21,26 +21,61 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package org.tiwindetea.magicmetro.global;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * Id generator, create unique ids in incremental order.
+ * Id generator, create unique ids in incremental order.<p>
+ * The singleton instance is the generator of the default game context, each other game context has its own
+ * generator and ids space.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
 public class IdGenerator {
 
-	private static int lastId = Integer.MIN_VALUE;
+	private final AtomicInteger lastId = new AtomicInteger(Integer.MIN_VALUE);
 
 	/**
-	 * Generate a new unique id.
+	 * Instantiates a new IdGenerator, independent of the singleton instance.
+	 *
+	 * @see GameContext
+	 */
+	public IdGenerator() {
+		// nothing
+	}
+
+	private static class IdGeneratorHolder {
+		private final static IdGenerator INSTANCE = new IdGenerator();
+	}
+
+	/**
+	 * Gets instance, the id generator of the default game context.<p>
+	 * The instance is created at the first call of this function.
+	 *
+	 * @return the instance
+	 */
+	public static IdGenerator getInstance() {
+		return IdGenerator.IdGeneratorHolder.INSTANCE;
+	}
+
+	/**
+	 * Generate a new unique id from the singleton instance.
 	 *
 	 * @return the new id
 	 */
 	public static int newId() {
-		return ++lastId;
+		return getInstance().nextId();
+	}
+
+	/**
+	 * Generate a new unique id.
+	 *
+	 * @return the new id
+	 */
+	public int nextId() {
+		return this.lastId.incrementAndGet();
 	}
 
 }
@@ -31,13 +31,14 @@ import org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents.TimeSp
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents.TimeStartEvent;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents.TimeStopEvent;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import javax.annotation.Nonnull;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Singleton that manage a time counter in his own thread.
+ * Manage a virtual time counter, the singleton instance is the time of the default game context and fires its
+ * events through the singleton event dispatcher.<p>
+ * The time is computed on demand from the monotonic clock: it is made of segments, each starting at a pause, a
+ * restart, a reset or a speed change, during which the time advance linearly at a constant speed.
  * Time minimum speed is 0.1
  *
  * @author Maxime PINARD
@@ -45,38 +46,56 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class TimeManager {
 
-	private final AtomicLong actualTime = new AtomicLong(0); // millis
-	private final AtomicLong added = new AtomicLong(10);
+	private static final double MIN_SPEED = 0.1;
+
+	private final EventDispatcher eventDispatcher;
+	private final long delayMillis = 10;
 	private final AtomicBoolean paused = new AtomicBoolean(true);
 	private final AtomicBoolean stopped = new AtomicBoolean(false);
-	private final long delayMillis = 10;
-	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
-	private final Runnable timeLoop = new Runnable() {
-		@Override
-		public void run() {
-			while(!TimeManager.this.stopped.get()) {
-				if(!TimeManager.this.paused.get()) {
-					TimeManager.this.actualTime.addAndGet(TimeManager.this.added.get());
-				}
-				try {
-					Thread.sleep(TimeManager.this.delayMillis);
-				} catch(InterruptedException e) {
-					e.printStackTrace();
-				}
+	private volatile Segment segment = new Segment(System.nanoTime(), 0, 1, false);
+
+	/**
+	 * Immutable part of the time during which the time advance at a constant speed.
+	 */
+	private static class Segment {
+
+		public final long startNanos; // monotonic clock at the start of the segment
+		public final long startTime; // virtual time at the start of the segment, as nanos
+		public final double speed;
+		public final boolean running;
+
+		public Segment(long startNanos, long startTime, double speed, boolean running) {
+			this.startNanos = startNanos;
+			this.startTime = startTime;
+			this.speed = speed;
+			this.running = running;
+		}
+
+		public long getTime(long nanos) {
+			if(!this.running) {
+				return this.startTime;
 			}
+			return this.startTime + (long) ((nanos - this.startNanos) * this.speed);
 		}
-	};
 
-	private TimeManager() {
-		this.executorService.submit(this.timeLoop);
+	}
+
+	/**
+	 * Instantiates a new TimeManager, independent of the singleton instance.
+	 *
+	 * @param eventDispatcher the event dispatcher receiving the time events
+	 * @see GameContext
+	 */
+	public TimeManager(@Nonnull EventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
 	}
 
 	private static class TimeManagerHolder {
-		private final static TimeManager INSTANCE = new TimeManager();
+		private final static TimeManager INSTANCE = new TimeManager(EventDispatcher.getInstance());
 	}
 
 	/**
-	 * Gets instance.<p>
+	 * Gets instance, the time manager of the default game context.<p>
 	 * The instance is created at the first call of this function.
 	 *
 	 * @return the instance
@@ -85,6 +104,29 @@ public class TimeManager {
 		return TimeManager.TimeManagerHolder.INSTANCE;
 	}
 
+	/**
+	 * Close the current segment of time and open a new one.
+	 *
+	 * @param time    the virtual time at the start of the new segment, as nanos, or a negative value to continue the
+	 *                current time
+	 * @param speed   the speed of the new segment
+	 * @param running true if the time advance during the new segment
+	 */
+	private synchronized void newSegment(long time, double speed, boolean running) {
+		long nanos = System.nanoTime();
+		if(time < 0) {
+			time = this.segment.getTime(nanos);
+		}
+		this.segment = new Segment(nanos, time, speed, running);
+	}
+
+	private synchronized void updateRunning() {
+		boolean running = !this.paused.get() && !this.stopped.get();
+		if(running != this.segment.running) {
+			newSegment(-1, this.segment.speed, running);
+		}
+	}
+
 	/**
 	 * Start or restart the time.
 	 */
@@ -93,25 +135,25 @@ public class TimeManager {
 		if(this.stopped.get()) {
 			started = true;
 			this.stopped.set(false);
-			this.executorService.submit(this.timeLoop);
 		}
 		if(this.paused.get()) {
 			started = true;
 			this.paused.set(false);
 		}
+		updateRunning();
 		if(started) {
-			EventDispatcher.getInstance().fire(new TimeStartEvent());
+			this.eventDispatcher.fire(new TimeStartEvent());
 		}
 	}
 
 	/**
-	 * Pause the time.<p>
-	 * The time thread keep running.
+	 * Pause the time.
 	 */
 	public void pause() {
 		if(!this.paused.get()) {
 			this.paused.set(true);
-			EventDispatcher.getInstance().fire(new TimePauseEvent());
+			updateRunning();
+			this.eventDispatcher.fire(new TimePauseEvent());
 		}
 	}
 
@@ -119,8 +161,10 @@ public class TimeManager {
 	 * Reset the time.
 	 */
 	public void reset() {
-		this.actualTime.set(0);
-		EventDispatcher.getInstance().fire(new TimeResetEvent());
+		synchronized(this) {
+			newSegment(0, this.segment.speed, this.segment.running);
+		}
+		this.eventDispatcher.fire(new TimeResetEvent());
 	}
 
 	/**
@@ -129,21 +173,39 @@ public class TimeManager {
 	 * @param speed the speed
 	 */
 	public void setSpeed(double speed) {
-		long oldSpeed = this.added.get() / 10;
-		long newSpeed = Math.max((long) (10 * speed), (long) 1);
-		if(newSpeed != oldSpeed) {
-			this.added.set(newSpeed);
-			EventDispatcher.getInstance().fire(new TimeSpeedChangeEvent(oldSpeed, newSpeed));
+		speed = Math.max(speed, MIN_SPEED);
+		double oldSpeed;
+		synchronized(this) {
+			oldSpeed = this.segment.speed;
+			if(speed == oldSpeed) {
+				return;
+			}
+			newSegment(-1, speed, this.segment.running);
+		}
+		// speeds are sent as tenths
+		long oldTenths = Math.round(10 * oldSpeed);
+		long newTenths = Math.round(10 * speed);
+		if(newTenths != oldTenths) {
+			this.eventDispatcher.fire(new TimeSpeedChangeEvent(oldTenths, newTenths));
 		}
 	}
 
+	/**
+	 * Check if the time is paused or stopped.
+	 *
+	 * @return true if the time doesn't advance, false otherwise
+	 */
+	public boolean isPaused() {
+		return this.paused.get() || this.stopped.get();
+	}
+
 	/**
 	 * Gets time as millis.
 	 *
 	 * @return the time as millis
 	 */
 	public long getTimeAsMillis() {
-		return this.actualTime.get();
+		return this.segment.getTime(System.nanoTime()) / 1000000;
 	}
 
 	/**
@@ -152,30 +214,30 @@ public class TimeManager {
 	 * @return the time as seconds
 	 */
 	public long getTimeAsSeconds() {
-		return (Math.round(this.actualTime.get() / 1000.0));
+		return (Math.round(getTimeAsMillis() / 1000.0));
 	}
 
 	/**
-	 * Stop the time.<p>
-	 * The time thread stop running.
+	 * Stop the time.
 	 */
 	public void stop() {
 		if(!this.stopped.get()) {
 			this.stopped.set(true);
-			EventDispatcher.getInstance().fire(new TimeStopEvent());
+			updateRunning();
+			this.eventDispatcher.fire(new TimeStopEvent());
 		}
 	}
 
 	/**
-	 * End the TimeManager, cannot be reuse after this function call.
+	 * End the TimeManager, stop the time.
 	 */
 	public void end() {
 		stop();
-		this.executorService.shutdown();
 	}
 
 	/**
-	 * Gets the refresh delay as milliseconds
+	 * Gets the refresh delay as milliseconds, the time has no refresh delay, but it is the delay advised for the
+	 * time users.
 	 *
 	 * @return the refresh delay
 	 */
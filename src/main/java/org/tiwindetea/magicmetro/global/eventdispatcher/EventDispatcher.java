@@ -25,17 +25,36 @@
 package org.tiwindetea.magicmetro.global.eventdispatcher;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Singleton that dispatch events to the registered listeners.
+ * Dispatch events to the registered listeners.<p>
+ * The singleton instance is the dispatcher of the default game context, each other game context has its own
+ * dispatcher so the games don't receive the events of each other.<p>
+ * A listener registered for an event class is notified of the events of this class and of its subclasses, so a
+ * listener of an interface like {@link org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineEvent}
+ * is notified of all the line events.<p>
+ * The listeners of an event class are kept in an array replaced at each registration, and the listeners notified
+ * of a fired class, its own and the ones of its supertypes, are resolved at its first event and cached until the
+ * next registration: firing an event takes no lock, allocates nothing and uses no reflection. The listeners are
+ * weakly referenced, the references of the collected listeners are removed from the arrays at the next
+ * registration.<p>
+ * The events and the execution times of the listeners can be measured with {@link EventStatistics}, off by default.
  *
  * @author Maxime PINARD
  * @see Event
@@ -44,11 +63,31 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class EventDispatcher {
 
-	private final Map<Class<? extends Event>, List<WeakReference<EventListener<? extends Event>>>> listenerMap = new HashMap<>(
-	  8);
-	private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+	private static final ListenerReference[] NO_LISTENERS = new ListenerReference[0];
 
-	private EventDispatcher() {
+	private static class ListenerReference extends WeakReference<EventListener<? extends Event>> {
+
+		final Class<? extends Event> eventClass;
+
+		ListenerReference(Class<? extends Event> eventClass,
+		                  EventListener<? extends Event> listener,
+		                  ReferenceQueue<EventListener<? extends Event>> referenceQueue) {
+			super(listener, referenceQueue);
+			this.eventClass = eventClass;
+		}
+	}
+
+	private final Map<Class<? extends Event>, ListenerReference[]> listenerMap = new HashMap<>(8); // guarded by itself
+	private final Map<Class<?>, ListenerReference[]> resolvedListenerMap = new ConcurrentHashMap<>(16);
+	private volatile EventStatistics statistics = null;
+	private final ReferenceQueue<EventListener<? extends Event>> referenceQueue = new ReferenceQueue<>();
+
+	/**
+	 * Instantiates a new EventDispatcher, independent of the singleton instance.
+	 *
+	 * @see org.tiwindetea.magicmetro.global.GameContext
+	 */
+	public EventDispatcher() {
 
 	}
 
@@ -57,7 +96,7 @@ public class EventDispatcher {
 	}
 
 	/**
-	 * Gets instance.<p>
+	 * Gets instance, the dispatcher of the default game context.<p>
 	 * The instance is created at the first call of this function.
 	 *
 	 * @return the instance
@@ -79,16 +118,14 @@ public class EventDispatcher {
 
 		Objects.requireNonNull(eventClass, "eventClass is null");
 		Objects.requireNonNull(listener, "listener is null");
-		this.readWriteLock.writeLock().lock();
-		if(this.listenerMap.containsKey(eventClass)) {
-			this.listenerMap.get(eventClass).add(new WeakReference<>(listener));
+		synchronized(this.listenerMap) {
+			removeCollectedListeners();
+			ListenerReference[] listeners = this.listenerMap.getOrDefault(eventClass, NO_LISTENERS);
+			ListenerReference[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+			newListeners[listeners.length] = new ListenerReference(eventClass, listener, this.referenceQueue);
+			this.listenerMap.put(eventClass, newListeners);
+			this.resolvedListenerMap.clear();
 		}
-		else {
-			List<WeakReference<EventListener<? extends Event>>> listeners = new ArrayList<>();
-			listeners.add(new WeakReference<>(listener));
-			this.listenerMap.put(eventClass, listeners);
-		}
-		this.readWriteLock.writeLock().unlock();
 	}
 
 	/**
@@ -104,16 +141,17 @@ public class EventDispatcher {
 
 		Objects.requireNonNull(eventClass, "eventClass is null");
 		Objects.requireNonNull(listener, "listener is null");
-		this.readWriteLock.writeLock().lock();
-		if(this.listenerMap.containsKey(eventClass)) {
-			this.listenerMap.get(eventClass).removeIf(listenerWeakReference -> listenerWeakReference.get() == listener);
+		synchronized(this.listenerMap) {
+			removeCollectedListeners();
+			removeListeners(eventClass, listener);
+			this.resolvedListenerMap.clear();
 		}
-		this.readWriteLock.writeLock().unlock();
 	}
 
 	/**
-	 * Fire an event. Notifies all listeners registered related to this event class.<p>
-	 * Also remove the listeners that no longer exist from the list of registered listeners related to the event class.
+	 * Fire an event. Notifies all listeners registered related to this event class and to its supertypes, the
+	 * listeners of the event class first.<p>
+	 * The listeners added or removed during the notifications are taken into account from the next event.
 	 *
 	 * @param <EventType> the event type
 	 * @param event       the event
@@ -121,29 +159,117 @@ public class EventDispatcher {
 	@SuppressWarnings("unchecked")
 	public <EventType extends Event> void fire(EventType event) {
 
-		List<WeakReference<EventListener<? extends Event>>> nullWeakReferences = new ArrayList<>();
-		this.readWriteLock.readLock().lock();
-		List<WeakReference<EventListener<? extends Event>>> listenerWeakReferenceList = this.listenerMap.get(event.getClass());
-		List<WeakReference<EventListener<? extends Event>>> listenerWeakReferenceListCopy;
-		if(listenerWeakReferenceList != null) {
-			listenerWeakReferenceListCopy = new ArrayList<>(listenerWeakReferenceList);
-			this.readWriteLock.readLock().unlock();
-			for(WeakReference<EventListener<? extends Event>> listenerWeakReference : listenerWeakReferenceListCopy) {
-				// noinspection unchecked
-				EventListener<EventType> listener = (EventListener<EventType>) listenerWeakReference.get();
-				if(listener == null) {
-					nullWeakReferences.add(listenerWeakReference);
-				}
-				else {
-					listener.onEvent(event);
+		ListenerReference[] listeners = this.resolvedListenerMap.get(event.getClass());
+		if(listeners == null) {
+			listeners = resolveListeners(event.getClass());
+		}
+		EventStatistics statistics = this.statistics;
+		if(statistics != null) {
+			fireMeasured(event, listeners, statistics);
+			return;
+		}
+		for(ListenerReference listenerReference : listeners) {
+			// noinspection unchecked
+			EventListener<EventType> listener = (EventListener<EventType>) listenerReference.get();
+			if(listener != null) {
+				listener.onEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * Gets the statistics of the events fired by this dispatcher.
+	 *
+	 * @return the statistics, null if the events are not measured
+	 */
+	@Nullable
+	public EventStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Sets the statistics counting the events fired by this dispatcher, measuring the events costs a call to
+	 * {@link System#nanoTime()} per listener.
+	 *
+	 * @param statistics the statistics, null to stop measuring the events
+	 */
+	public void setStatistics(@Nullable EventStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <EventType extends Event> void fireMeasured(EventType event,
+	                                                   ListenerReference[] listeners,
+	                                                   EventStatistics statistics) {
+		statistics.addEvent(event.getClass());
+		for(ListenerReference listenerReference : listeners) {
+			// noinspection unchecked
+			EventListener<EventType> listener = (EventListener<EventType>) listenerReference.get();
+			if(listener != null) {
+				long start = System.nanoTime();
+				listener.onEvent(event);
+				statistics.addListenerCall(event.getClass(), listener, System.nanoTime() - start);
+			}
+		}
+	}
+
+	private ListenerReference[] resolveListeners(Class<?> eventClass) {
+		synchronized(this.listenerMap) {
+			ListenerReference[] listeners = this.resolvedListenerMap.get(eventClass);
+			if(listeners != null) {
+				return listeners;
+			}
+
+			// the class, then its superclasses and interfaces breadth first
+			List<ListenerReference> resolvedListeners = new ArrayList<>();
+			Set<Class<?>> visitedTypes = new HashSet<>();
+			Deque<Class<?>> types = new ArrayDeque<>();
+			types.add(eventClass);
+			while(!types.isEmpty()) {
+				Class<?> type = types.poll();
+				if(visitedTypes.add(type)) {
+					ListenerReference[] typeListeners = this.listenerMap.get(type);
+					if(typeListeners != null) {
+						Collections.addAll(resolvedListeners, typeListeners);
+					}
+					if(type.getSuperclass() != null) {
+						types.add(type.getSuperclass());
+					}
+					Collections.addAll(types, type.getInterfaces());
 				}
 			}
-			this.readWriteLock.writeLock().lock();
-			listenerWeakReferenceList.removeAll(nullWeakReferences);
-			this.readWriteLock.writeLock().unlock();
+			listeners = resolvedListeners.toArray(NO_LISTENERS);
+			this.resolvedListenerMap.put(eventClass, listeners);
+			return listeners;
+		}
+	}
+
+	private void removeCollectedListeners() {
+		Reference<? extends EventListener<? extends Event>> reference;
+		while((reference = this.referenceQueue.poll()) != null) {
+			removeListeners(((ListenerReference) reference).eventClass, null);
+		}
+	}
+
+	private void removeListeners(Class<? extends Event> eventClass, EventListener<? extends Event> listener) {
+		ListenerReference[] listeners = this.listenerMap.get(eventClass);
+		if(listeners == null) {
+			return;
+		}
+		// the collected listeners are removed with the given listener, null to only remove them
+		ListenerReference[] newListeners = new ListenerReference[listeners.length];
+		int listenersNumber = 0;
+		for(ListenerReference listenerReference : listeners) {
+			EventListener<? extends Event> registeredListener = listenerReference.get();
+			if((registeredListener != null) && (registeredListener != listener)) {
+				newListeners[listenersNumber++] = listenerReference;
+			}
+		}
+		if(listenersNumber == 0) {
+			this.listenerMap.remove(eventClass);
 		}
-		else {
-			this.readWriteLock.readLock().unlock();
+		else if(listenersNumber < listeners.length) {
+			this.listenerMap.put(eventClass, Arrays.copyOf(newListeners, listenersNumber));
 		}
 	}
 
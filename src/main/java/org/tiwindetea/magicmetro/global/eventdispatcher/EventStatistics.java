@@ -0,0 +1,314 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.global.eventdispatcher;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of the events fired by an {@link EventDispatcher}, to find the listeners slowing the game down.<p>
+ * For each event class, the number of events, the number of listener calls and a histogram of the execution
+ * times of the listeners are counted. The bucket {@code i} of a histogram counts the calls lasting between
+ * {@code 2^i} and {@code 2^(i+1)} nanoseconds. The calls lasting more than a threshold are kept in a log of the
+ * last {@link #MAX_SLOW_LISTENER_CALLS} slow calls.
+ *
+ * @author Maxime PINARD
+ * @see EventDispatcher#setStatistics(EventStatistics)
+ * @since 0.1
+ */
+public class EventStatistics {
+
+	/**
+	 * The number of buckets of the histograms, the last bucket counts the calls of more than 2^39 nanoseconds.
+	 */
+	public static final int BUCKETS_NUMBER = 40;
+
+	/**
+	 * The maximum number of slow listener calls kept in the log.
+	 */
+	public static final int MAX_SLOW_LISTENER_CALLS = 100;
+
+	/**
+	 * A listener call lasting more than the slow listener threshold.
+	 */
+	public static class SlowListenerCall {
+
+		public final Class<?> eventClass;
+		public final String listenerClassName;
+		public final long durationNanos;
+
+		/**
+		 * Instantiates a new SlowListenerCall.
+		 *
+		 * @param eventClass        the event class
+		 * @param listenerClassName the listener class name, the enclosing class of a lambda listener
+		 * @param durationNanos     the duration of the call as nanoseconds
+		 */
+		public SlowListenerCall(Class<?> eventClass, String listenerClassName, long durationNanos) {
+			this.eventClass = eventClass;
+			this.listenerClassName = listenerClassName;
+			this.durationNanos = durationNanos;
+		}
+
+		@Override
+		public String toString() {
+			return this.eventClass.getSimpleName() + " " + this.listenerClassName + " "
+			  + formatNanos(this.durationNanos);
+		}
+	}
+
+	private static class EventClassStatistics {
+
+		final AtomicLong eventsNumber = new AtomicLong();
+		final AtomicLong callsNumber = new AtomicLong();
+		final AtomicLong totalNanos = new AtomicLong();
+		final AtomicLong maxNanos = new AtomicLong();
+		final AtomicLongArray histogram = new AtomicLongArray(BUCKETS_NUMBER);
+	}
+
+	private final long slowListenerThreshold;
+	private final Map<Class<?>, EventClassStatistics> eventClassesStatistics = new ConcurrentHashMap<>(16);
+	private final Deque<SlowListenerCall> slowListenerCalls = new ArrayDeque<>(MAX_SLOW_LISTENER_CALLS);
+
+	/**
+	 * Instantiates a new EventStatistics.
+	 *
+	 * @param slowListenerThreshold the duration of a call above which it is logged as slow, as nanoseconds
+	 */
+	public EventStatistics(long slowListenerThreshold) {
+		this.slowListenerThreshold = slowListenerThreshold;
+	}
+
+	/**
+	 * Count an event.
+	 *
+	 * @param eventClass the event class
+	 */
+	void addEvent(@Nonnull Class<?> eventClass) {
+		getEventClassStatistics(eventClass).eventsNumber.incrementAndGet();
+	}
+
+	/**
+	 * Count a listener call.
+	 *
+	 * @param eventClass    the event class
+	 * @param listener      the listener
+	 * @param durationNanos the duration of the call as nanoseconds
+	 */
+	void addListenerCall(@Nonnull Class<?> eventClass, @Nonnull EventListener<?> listener, long durationNanos) {
+		EventClassStatistics statistics = getEventClassStatistics(eventClass);
+		statistics.callsNumber.incrementAndGet();
+		statistics.totalNanos.addAndGet(durationNanos);
+		statistics.histogram.incrementAndGet(getBucket(durationNanos));
+		long maxNanos = statistics.maxNanos.get();
+		while(durationNanos > maxNanos && !statistics.maxNanos.compareAndSet(maxNanos, durationNanos)) {
+			maxNanos = statistics.maxNanos.get();
+		}
+
+		if(durationNanos > this.slowListenerThreshold) {
+			String listenerClassName = listener.getClass().getName();
+			int lambdaIndex = listenerClassName.indexOf("$$Lambda");
+			if(lambdaIndex >= 0) {
+				listenerClassName = listenerClassName.substring(0, lambdaIndex);
+			}
+			synchronized(this.slowListenerCalls) {
+				if(this.slowListenerCalls.size() == MAX_SLOW_LISTENER_CALLS) {
+					this.slowListenerCalls.removeFirst();
+				}
+				this.slowListenerCalls.addLast(new SlowListenerCall(eventClass, listenerClassName, durationNanos));
+			}
+		}
+	}
+
+	/**
+	 * Gets the duration of a call above which it is logged as slow.
+	 *
+	 * @return the slow listener threshold as nanoseconds
+	 */
+	public long getSlowListenerThreshold() {
+		return this.slowListenerThreshold;
+	}
+
+	/**
+	 * Gets the event classes fired since the creation of the statistics.
+	 *
+	 * @return the event classes
+	 */
+	public List<Class<?>> getEventClasses() {
+		return new ArrayList<>(this.eventClassesStatistics.keySet());
+	}
+
+	/**
+	 * Gets the number of events of a class.
+	 *
+	 * @param eventClass the event class
+	 * @return the number of events
+	 */
+	public long getEventsNumber(@Nonnull Class<?> eventClass) {
+		EventClassStatistics statistics = this.eventClassesStatistics.get(eventClass);
+		return (statistics == null) ? 0 : statistics.eventsNumber.get();
+	}
+
+	/**
+	 * Gets the number of listener calls for the events of a class.
+	 *
+	 * @param eventClass the event class
+	 * @return the number of listener calls
+	 */
+	public long getListenerCallsNumber(@Nonnull Class<?> eventClass) {
+		EventClassStatistics statistics = this.eventClassesStatistics.get(eventClass);
+		return (statistics == null) ? 0 : statistics.callsNumber.get();
+	}
+
+	/**
+	 * Gets the total execution time of the listeners for the events of a class.
+	 *
+	 * @param eventClass the event class
+	 * @return the total time as nanoseconds
+	 */
+	public long getTotalNanos(@Nonnull Class<?> eventClass) {
+		EventClassStatistics statistics = this.eventClassesStatistics.get(eventClass);
+		return (statistics == null) ? 0 : statistics.totalNanos.get();
+	}
+
+	/**
+	 * Gets the longest execution time of a listener for the events of a class.
+	 *
+	 * @param eventClass the event class
+	 * @return the longest time as nanoseconds
+	 */
+	public long getMaxNanos(@Nonnull Class<?> eventClass) {
+		EventClassStatistics statistics = this.eventClassesStatistics.get(eventClass);
+		return (statistics == null) ? 0 : statistics.maxNanos.get();
+	}
+
+	/**
+	 * Gets the histogram of the execution times of the listeners for the events of a class.
+	 *
+	 * @param eventClass the event class
+	 * @return the numbers of calls of the {@link #BUCKETS_NUMBER} buckets
+	 */
+	public long[] getHistogram(@Nonnull Class<?> eventClass) {
+		long[] histogram = new long[BUCKETS_NUMBER];
+		EventClassStatistics statistics = this.eventClassesStatistics.get(eventClass);
+		if(statistics != null) {
+			for(int i = 0; i < BUCKETS_NUMBER; ++i) {
+				histogram[i] = statistics.histogram.get(i);
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * Gets an upper bound of a percentile of the execution times of the listeners for the events of a class, from
+	 * its histogram.
+	 *
+	 * @param eventClass the event class
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the upper bound of the bucket of the percentile as nanoseconds, 0 if there was no call
+	 */
+	public long getPercentileNanos(@Nonnull Class<?> eventClass, double percentile) {
+		long[] histogram = getHistogram(eventClass);
+		long callsNumber = 0;
+		for(long bucketCalls : histogram) {
+			callsNumber += bucketCalls;
+		}
+		long rank = (long) Math.ceil(callsNumber * percentile / 100);
+		long calls = 0;
+		for(int i = 0; i < BUCKETS_NUMBER; ++i) {
+			calls += histogram[i];
+			if(calls >= rank && calls > 0) {
+				return 1L << (i + 1);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the last slow listener calls, the oldest first.
+	 *
+	 * @return the slow listener calls
+	 */
+	public List<SlowListenerCall> getSlowListenerCalls() {
+		synchronized(this.slowListenerCalls) {
+			return new ArrayList<>(this.slowListenerCalls);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder stringBuilder = new StringBuilder();
+		for(Class<?> eventClass : getEventClasses()) {
+			long callsNumber = getListenerCallsNumber(eventClass);
+			stringBuilder.append(eventClass.getSimpleName())
+			  .append(": ").append(getEventsNumber(eventClass)).append(" events")
+			  .append(", ").append(callsNumber).append(" listener calls");
+			if(callsNumber > 0) {
+				stringBuilder.append(", mean ").append(formatNanos(getTotalNanos(eventClass) / callsNumber))
+				  .append(", p99 < ").append(formatNanos(getPercentileNanos(eventClass, 99)))
+				  .append(", max ").append(formatNanos(getMaxNanos(eventClass)));
+			}
+			stringBuilder.append('\n');
+		}
+		for(SlowListenerCall slowListenerCall : getSlowListenerCalls()) {
+			stringBuilder.append("slow listener: ").append(slowListenerCall).append('\n');
+		}
+		return stringBuilder.toString();
+	}
+
+	private EventClassStatistics getEventClassStatistics(Class<?> eventClass) {
+		EventClassStatistics statistics = this.eventClassesStatistics.get(eventClass);
+		if(statistics == null) {
+			this.eventClassesStatistics.putIfAbsent(eventClass, new EventClassStatistics());
+			statistics = this.eventClassesStatistics.get(eventClass);
+		}
+		return statistics;
+	}
+
+	private static int getBucket(long durationNanos) {
+		if(durationNanos <= 1) {
+			return 0;
+		}
+		return Math.min(63 - Long.numberOfLeadingZeros(durationNanos), BUCKETS_NUMBER - 1);
+	}
+
+	private static String formatNanos(long nanos) {
+		if(nanos < 10_000) {
+			return nanos + " ns";
+		}
+		if(nanos < 10_000_000) {
+			return (nanos / 1000) + " us";
+		}
+		return (nanos / 1_000_000) + " ms";
+	}
+
+}
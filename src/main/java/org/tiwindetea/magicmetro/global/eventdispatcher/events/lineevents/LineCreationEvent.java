@@ -25,7 +25,6 @@
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents;
 
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
 
 import javax.annotation.Nonnull;
 
@@ -35,7 +34,7 @@ import javax.annotation.Nonnull;
  * @author Maxime PINARD
  * @since 0.1
  */
-public class LineCreationEvent implements Event {
+public class LineCreationEvent implements LineEvent {
 
 	public final int lineId;
 	public final int newSectionId;
@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event for the decrease of a Line (deletion of a section).
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class LineDecreaseEvent implements Event {
+public class LineDecreaseEvent implements LineEvent {
 
 	public final int lineId;
 	public final int oldSectionId;
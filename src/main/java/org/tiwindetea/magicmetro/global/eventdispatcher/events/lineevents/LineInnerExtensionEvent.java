@@ -25,7 +25,6 @@
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents;
 
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
 
 import javax.annotation.Nonnull;
 
@@ -36,7 +35,7 @@ import javax.annotation.Nonnull;
  * @author Julien Barbier
  * @since 0.1
  */
-public class LineInnerExtensionEvent implements Event {
+public class LineInnerExtensionEvent implements LineEvent {
 
 	public final int lineId;
 	public final int oldSectionId;
@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event when a station upgrade is moved from inventory to map.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class StationUpgradeInventoryMoveEvent implements Event {
+public class StationUpgradeInventoryMoveEvent implements MoveEvent {
 
 	public final int stationId;
 
@@ -25,7 +25,6 @@
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents;
 
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
 
 /**
  * Event when a train is moved from inventory to map.
@@ -33,7 +32,7 @@ import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
  * @author Maxime PINARD
  * @since 0.1
  */
-public class TrainInventoryMoveEvent implements Event {
+public class TrainInventoryMoveEvent implements MoveEvent {
 
 	public final int lineId;
 	public final int sectionId;
@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event send when the time is paused.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class TimePauseEvent implements Event {
+public class TimePauseEvent implements TimeEvent {
 
 	/**
 	 * Instantiates a new TimePauseEvent.
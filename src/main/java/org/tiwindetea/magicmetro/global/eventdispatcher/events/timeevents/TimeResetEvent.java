@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event send when the time is reset.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class TimeResetEvent implements Event {
+public class TimeResetEvent implements TimeEvent {
 
 	/**
 	 * Instantiates a new TimeResetEvent.
@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event send when the time speed has changed.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class TimeSpeedChangeEvent implements Event {
+public class TimeSpeedChangeEvent implements TimeEvent {
 
 	public final long oldSpeed;
 	public final long newSpeed;
@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event send when the time was paused and restart.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class TimeStartEvent implements Event {
+public class TimeStartEvent implements TimeEvent {
 
 	/**
 	 * Instantiates a new TimeStartEvent.
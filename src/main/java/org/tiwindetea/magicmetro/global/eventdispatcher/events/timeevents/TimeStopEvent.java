@@ -24,15 +24,13 @@
 
 package org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents;
 
-import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
-
 /**
  * Event send when the time is stopped.
  *
  * @author Maxime PINARD
  * @since 0.1
  */
-public class TimeStopEvent implements Event {
+public class TimeStopEvent implements TimeEvent {
 
 	/**
 	 * Instantiates a new TimeStopEvent.
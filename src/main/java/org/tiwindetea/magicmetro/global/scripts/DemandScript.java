@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.global.scripts;
+
+import org.tiwindetea.magicmetro.model.StationType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.EnumMap;
+
+/**
+ * Describe the passenger demand of a map.<p>
+ * The passengers appear on the whole map at a rate that ramps linearly from the initial rate to the final rate
+ * during the ramp duration, they are split between the stations by the passenger weights of the stations
+ * scripts. The wanted station type of a passenger is drawn among the types of the stations on the map, other than
+ * the type of its station, with a probability proportional to the number of stations of the type multiplied by
+ * the destination weight of the type.
+ *
+ * @author Maxime PINARD
+ * @see StationScript#passengerWeight
+ * @since 0.1
+ */
+public class DemandScript {
+
+	public final double initialRate; // passengers per second
+	public final double finalRate; // passengers per second
+	public final Duration rampDuration;
+
+	public final EnumMap<StationType, Double> destinationWeights = new EnumMap<>(StationType.class);
+
+	/**
+	 * Instantiates a new DemandScript, all the destination weights are 1.
+	 *
+	 * @param initialRate  the rate of passengers apparition at the beginning of the game, as passengers per second
+	 * @param finalRate    the rate of passengers apparition at the end of the ramp, as passengers per second
+	 * @param rampDuration the duration of the ramp, null for no ramp
+	 */
+	public DemandScript(double initialRate, double finalRate, @Nullable Duration rampDuration) {
+		this.initialRate = initialRate;
+		this.finalRate = finalRate;
+		this.rampDuration = (rampDuration == null) ? Duration.ZERO : rampDuration;
+		for(StationType stationType : StationType.values()) {
+			this.destinationWeights.put(stationType, 1d);
+		}
+	}
+
+	/**
+	 * Instantiates a new DemandScript, copy constructor.
+	 *
+	 * @param demandScript the demand script to copy
+	 */
+	public DemandScript(@Nonnull DemandScript demandScript) {
+		this.initialRate = demandScript.initialRate;
+		this.finalRate = demandScript.finalRate;
+		this.rampDuration = demandScript.rampDuration;
+		this.destinationWeights.putAll(demandScript.destinationWeights);
+	}
+
+	/**
+	 * Gets the rate of passengers apparition at a time of the game.
+	 *
+	 * @param timeMillis the time as millis
+	 * @return the rate as passengers per second
+	 */
+	public double getRate(long timeMillis) {
+		long rampMillis = this.rampDuration.toMillis();
+		if(timeMillis >= rampMillis) {
+			return this.finalRate;
+		}
+		return this.initialRate + (this.finalRate - this.initialRate) * timeMillis / rampMillis;
+	}
+
+	/**
+	 * Gets the expected number of passengers appearing between two times of the game, the integral of the rate.
+	 *
+	 * @param fromMillis the start time as millis
+	 * @param toMillis   the end time as millis
+	 * @return the expected number of passengers
+	 */
+	public double getPassengers(long fromMillis, long toMillis) {
+		long rampMillis = this.rampDuration.toMillis();
+		if(fromMillis < rampMillis && toMillis > rampMillis) {
+			return getPassengers(fromMillis, rampMillis) + getPassengers(rampMillis, toMillis);
+		}
+		// the rate is linear between the two times
+		return (getRate(fromMillis) + getRate(toMillis)) * (toMillis - fromMillis) / 2000;
+	}
+
+	/**
+	 * Gets the destination weight of a station type.
+	 *
+	 * @param stationType the station type
+	 * @return the weight, 0 if the type has no weight
+	 */
+	public double getDestinationWeight(@Nonnull StationType stationType) {
+		Double weight = this.destinationWeights.get(stationType);
+		return (weight == null) ? 0 : weight;
+	}
+
+}
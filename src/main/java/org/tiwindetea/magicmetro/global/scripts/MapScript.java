@@ -37,17 +37,21 @@ import java.util.PriorityQueue;
  */
 public class MapScript {
 
+	private static final double DEFAULT_PASSENGER_RATE = 0.5; // passengers per second
+
 	public final String mapName;
 	public final double mapWidth;
 	public final double mapHeight;
 
 	public final PriorityQueue<ElementChoiceScript> elementChoiceScripts = new PriorityQueue<>((o1, o2) ->
-	  (int) (o1.apparitionTime.toMillis() - o2.apparitionTime.toMillis()));
+	  Long.compare(o1.apparitionTime.toMillis(), o2.apparitionTime.toMillis()));
 	public final PriorityQueue<StationScript> stationScripts = new PriorityQueue<>((o1, o2) ->
-	  (int) (o1.apparitionTime.toMillis() - o2.apparitionTime.toMillis()));
+	  Long.compare(o1.apparitionTime.toMillis(), o2.apparitionTime.toMillis()));
 
 	public final MultiShape2d<Rectangle2d> water;
 
+	public DemandScript demandScript = new DemandScript(DEFAULT_PASSENGER_RATE, DEFAULT_PASSENGER_RATE, null);
+
 	public int initialLines = 0;
 	public int initialTrains = 0;
 	public int initialPassengerCars = 0;
@@ -81,6 +85,7 @@ public class MapScript {
 		this.elementChoiceScripts.addAll(mapScript.elementChoiceScripts);
 		this.stationScripts.addAll(mapScript.stationScripts);
 		this.water = mapScript.water.clone();
+		this.demandScript = new DemandScript(mapScript.demandScript);
 		this.initialLines = mapScript.initialLines;
 		this.initialTrains = mapScript.initialTrains;
 		this.initialPassengerCars = mapScript.initialPassengerCars;
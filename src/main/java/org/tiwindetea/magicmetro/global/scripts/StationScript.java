@@ -42,19 +42,37 @@ public class StationScript {
 	public final Duration apparitionTime;
 	public final Point2d position;
 	public final StationType type;
+	public final double passengerWeight; // share of the passengers of the map appearing in the station
 
 	/**
-	 * Instantiates a new StationScript.
+	 * Instantiates a new StationScript, the passenger weight is 1.
 	 *
 	 * @param apparitionTime the apparition time
 	 * @param position       the position
 	 * @param type           the station type
 	 */
 	public StationScript(@Nullable Duration apparitionTime, @Nullable Point2d position, @Nonnull StationType type) {
+		this(apparitionTime, position, type, 1);
+	}
+
+	/**
+	 * Instantiates a new StationScript.
+	 *
+	 * @param apparitionTime  the apparition time
+	 * @param position        the position
+	 * @param type            the station type
+	 * @param passengerWeight the passenger weight, relative to the other stations
+	 * @see DemandScript
+	 */
+	public StationScript(@Nullable Duration apparitionTime,
+	                     @Nullable Point2d position,
+	                     @Nonnull StationType type,
+	                     double passengerWeight) {
 
 		this.apparitionTime = (apparitionTime == null) ? Duration.ofSeconds(0) : apparitionTime;
 		this.position = (position == null) ? new Point2d() : position;
 		this.type = type;
+		this.passengerWeight = passengerWeight;
 	}
 
 }
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.global.util;
+
+import javax.annotation.Nonnull;
+import java.util.Random;
+
+/**
+ * Alias table, sample an index of a discrete distribution in constant time.<p>
+ * The table is built once from the weights of the indices with the method of Vose, then each sample only draws a
+ * column and a coin from the random generator.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class AliasTable {
+
+	private final double[] probabilities;
+	private final int[] aliases;
+
+	/**
+	 * Instantiates a new AliasTable.
+	 *
+	 * @param weights the weights of the indices, positive or null, at least one weight must be positive
+	 */
+	public AliasTable(@Nonnull double[] weights) {
+		int size = weights.length;
+		double sum = 0;
+		for(double weight : weights) {
+			if(!(weight >= 0) || Double.isInfinite(weight)) {
+				throw new IllegalStateException("invalid weight " + weight);
+			}
+			sum += weight;
+		}
+		if(!(sum > 0)) {
+			throw new IllegalStateException("no positive weight");
+		}
+
+		this.probabilities = new double[size];
+		this.aliases = new int[size];
+		double[] scaledWeights = new double[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int smallSize = 0;
+		int largeSize = 0;
+		for(int i = 0; i < size; ++i) {
+			scaledWeights[i] = weights[i] * size / sum;
+			if(scaledWeights[i] < 1) {
+				small[smallSize++] = i;
+			}
+			else {
+				large[largeSize++] = i;
+			}
+		}
+		while((smallSize > 0) && (largeSize > 0)) {
+			int less = small[--smallSize];
+			int more = large[--largeSize];
+			this.probabilities[less] = scaledWeights[less];
+			this.aliases[less] = more;
+			scaledWeights[more] = (scaledWeights[more] + scaledWeights[less]) - 1;
+			if(scaledWeights[more] < 1) {
+				small[smallSize++] = more;
+			}
+			else {
+				large[largeSize++] = more;
+			}
+		}
+		// the remaining columns are full, up to rounding errors
+		while(largeSize > 0) {
+			int more = large[--largeSize];
+			this.probabilities[more] = 1;
+			this.aliases[more] = more;
+		}
+		while(smallSize > 0) {
+			int less = small[--smallSize];
+			this.probabilities[less] = 1;
+			this.aliases[less] = less;
+		}
+	}
+
+	/**
+	 * Sample an index.
+	 *
+	 * @param random the random generator
+	 * @return the index, drawn with a probability proportional to its weight
+	 */
+	public int sample(@Nonnull Random random) {
+		int column = random.nextInt(this.probabilities.length);
+		return (random.nextDouble() < this.probabilities[column]) ? column : this.aliases[column];
+	}
+
+	/**
+	 * Gets the number of indices.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return this.probabilities.length;
+	}
+
+}
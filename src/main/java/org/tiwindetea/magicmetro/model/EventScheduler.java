@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Hierarchical timing wheel scheduling the timed events of a simulation by tick.<p>
+ * Each level has 64 slots, a slot of the first level holds the events of a tick and a slot of the next levels the
+ * events of 64 times more ticks than a slot of the previous level. An event is put in the lowest level where its
+ * tick shares the upper bits of the current tick, so inserting and cancelling an event are O(1), and the events of
+ * a slot are moved to the lower levels once, when the current tick reaches the slot. The events beyond the last
+ * level wait in an overflow list. The ticks where no slot has to be fired nor moved are skipped.
+ *
+ * @author Maxime PINARD
+ * @see Simulation
+ * @since 0.1
+ */
+class EventScheduler {
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS_NUMBER = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS_NUMBER - 1;
+	private static final int LEVELS_NUMBER = 6; // 2^36 ticks
+
+	/**
+	 * An event of the scheduler, in a doubly linked list of events.
+	 */
+	final class ScheduledEvent {
+
+		private final long tick;
+		private final Runnable action;
+		private int level;
+		private ScheduledEvent previous;
+		private ScheduledEvent next;
+
+		private ScheduledEvent(long tick, Runnable action) {
+			this.tick = tick;
+			this.action = action;
+		}
+
+		/**
+		 * Gets the tick of the event.
+		 *
+		 * @return the tick
+		 */
+		long getTick() {
+			return this.tick;
+		}
+
+		/**
+		 * Check if the event is scheduled, neither fired nor cancelled.
+		 *
+		 * @return true if the event is scheduled, false otherwise
+		 */
+		boolean isScheduled() {
+			return this.previous != null;
+		}
+
+		/**
+		 * Cancel the event, nothing is done if the event is not scheduled.
+		 */
+		void cancel() {
+			if(isScheduled()) {
+				unlink(this);
+			}
+		}
+
+	}
+
+	private final ScheduledEvent[][] slots = new ScheduledEvent[LEVELS_NUMBER][SLOTS_NUMBER]; // list heads
+	private final ScheduledEvent overflow = newList();
+	private final int[] levelsSizes = new int[LEVELS_NUMBER + 1]; // the last one is the size of the overflow
+	private long tick = 0; // the events of this tick and before are fired
+
+	/**
+	 * Instantiates a new EventScheduler, at the tick 0.
+	 */
+	EventScheduler() {
+		for(ScheduledEvent[] levelSlots : this.slots) {
+			for(int i = 0; i < SLOTS_NUMBER; ++i) {
+				levelSlots[i] = newList();
+			}
+		}
+	}
+
+	/**
+	 * Schedule an action at a tick.
+	 *
+	 * @param tick   the tick, an action scheduled at a past or the current tick is run at the next tick
+	 * @param action the action
+	 * @return the scheduled event, to cancel it
+	 */
+	ScheduledEvent schedule(long tick, @Nonnull Runnable action) {
+		ScheduledEvent event = new ScheduledEvent(Math.max(tick, this.tick + 1), action);
+		insert(event);
+		return event;
+	}
+
+	/**
+	 * Run the actions of the events scheduled up to a tick, in the order of their ticks.<p>
+	 * The actions can schedule and cancel events.
+	 *
+	 * @param tick the tick
+	 */
+	void advance(long tick) {
+		while(this.tick < tick) {
+			skipIdleTicks(tick);
+			++this.tick;
+			cascade();
+			ScheduledEvent slot = this.slots[0][(int) this.tick & SLOT_MASK];
+			while(slot.next != slot) {
+				ScheduledEvent event = slot.next;
+				unlink(event);
+				event.action.run();
+			}
+		}
+	}
+
+	/**
+	 * Gets the current tick, the last tick given to {@link #advance(long)}.
+	 *
+	 * @return the current tick
+	 */
+	long getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * Gets the number of scheduled events.
+	 *
+	 * @return the number of scheduled events
+	 */
+	int size() {
+		int size = 0;
+		for(int levelSize : this.levelsSizes) {
+			size += levelSize;
+		}
+		return size;
+	}
+
+	private void skipIdleTicks(long maxTick) {
+		// the next slot of the lowest non empty level is reached at the next multiple of the span of its slots
+		int level = 0;
+		while((level <= LEVELS_NUMBER) && (this.levelsSizes[level] == 0)) {
+			++level;
+		}
+		if(level == 0) {
+			return;
+		}
+		if(level > LEVELS_NUMBER) {
+			this.tick = maxTick - 1;
+			return;
+		}
+		long span = 1L << (SLOT_BITS * level);
+		this.tick = Math.min((this.tick | (span - 1)) + 1, maxTick) - 1;
+	}
+
+	private void cascade() {
+		int level = 1;
+		while((level <= LEVELS_NUMBER) && ((this.tick & ((1L << (SLOT_BITS * level)) - 1)) == 0)) {
+			++level;
+		}
+		// the upper levels first, their events can go to the slots of the lower levels moved next
+		if(level > LEVELS_NUMBER) {
+			reinsert(this.overflow);
+			level = LEVELS_NUMBER;
+		}
+		for(--level; level > 0; --level) {
+			reinsert(this.slots[level][(int) (this.tick >>> (SLOT_BITS * level)) & SLOT_MASK]);
+		}
+	}
+
+	private void reinsert(ScheduledEvent list) {
+		// detached first, the events of the overflow can go back to it
+		ScheduledEvent event = list.next;
+		list.previous = list;
+		list.next = list;
+		while(event != list) {
+			ScheduledEvent next = event.next;
+			--this.levelsSizes[event.level];
+			insert(event);
+			event = next;
+		}
+	}
+
+	private void insert(ScheduledEvent event) {
+		for(int level = 0; level < LEVELS_NUMBER; ++level) {
+			int shift = SLOT_BITS * (level + 1);
+			if((event.tick >>> shift) == (this.tick >>> shift)) {
+				event.level = level;
+				link(this.slots[level][(int) (event.tick >>> (SLOT_BITS * level)) & SLOT_MASK], event);
+				return;
+			}
+		}
+		event.level = LEVELS_NUMBER;
+		link(this.overflow, event);
+	}
+
+	private ScheduledEvent newList() {
+		ScheduledEvent list = new ScheduledEvent(0, null); // head of the list, never linked nor unlinked
+		list.previous = list;
+		list.next = list;
+		return list;
+	}
+
+	private void link(ScheduledEvent list, ScheduledEvent event) {
+		++this.levelsSizes[event.level];
+		event.previous = list.previous;
+		event.next = list;
+		list.previous.next = event;
+		list.previous = event;
+	}
+
+	private void unlink(ScheduledEvent event) {
+		--this.levelsSizes[event.level];
+		event.previous.next = event.next;
+		event.next.previous = event.previous;
+		event.previous = null;
+		event.next = null;
+	}
+
+}
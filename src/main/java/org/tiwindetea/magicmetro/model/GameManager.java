@@ -24,141 +24,153 @@
 
 package org.tiwindetea.magicmetro.model;
 
+import org.tiwindetea.magicmetro.global.GameContext;
 import org.tiwindetea.magicmetro.global.TimeManager;
-import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
 import org.tiwindetea.magicmetro.global.eventdispatcher.EventListener;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.GameExitEvent;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.InventoryElementAdditionEvent;
-import org.tiwindetea.magicmetro.global.scripts.ElementChoiceScript;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents.TimeFastForwardEvent;
 import org.tiwindetea.magicmetro.global.scripts.MapScript;
 import org.tiwindetea.magicmetro.global.scripts.StationScript;
-import org.tiwindetea.magicmetro.global.util.Utils;
 import org.tiwindetea.magicmetro.model.lines.Line;
-import org.tiwindetea.magicmetro.view.ViewManager;
+import org.tiwindetea.magicmetro.view.ViewFactory;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.time.Duration;
-import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
- * Logic of the game, manage the main loop.
+ * Logic of the game, drive the {@link Simulation} with the time of the {@link TimeManager}.
  *
  * @author Maxime PINARD
  * @author Julien Barbier
  * @since 0.1
  */
-public class GameManager implements StationManager, LineManager {
+public class GameManager implements LineManager {
 
-	private static final int LOOP_DELAY_MILLIS = 10; // number of milliseconds (of the TimeManager) between two game tick
+	private static final int FAST_FORWARD_TICKS = 1000; // ticks run between two updates of the game time in fast forward
 
-	private final ViewManager viewManager;
+	private final GameContext gameContext;
+	private final ViewFactory viewFactory;
 	private final GameMap gameMap;
 	private final Inventory inventory;
 	private final MapScript mapScript;
+	private final Simulation simulation;
 	private final EventListener<InventoryElementAdditionEvent> onInventoryElementAdditionEvent;
 	private final EventListener<GameExitEvent> onGameExitEvent;
-
-	private final PriorityQueue<Station> warnedStations = new PriorityQueue<>((o1, o2) ->
-	  (int) (o1.getWarnEnd() - o2.getWarnEnd()));
+	private final EventListener<TimeFastForwardEvent> onTimeFastForwardEvent;
 
 	private final long refreshDelay;
-	private boolean gameEnded = false;
+	private volatile boolean gameEnded = false;
+	private volatile boolean fastForward = false;
+	private MovementMode movementMode; // movement mode of the simulation before the fast forward
 	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 	private final Runnable gameLoop = new Runnable() {
 		@Override
 		public void run() {
-			long nextLoop = 0;
-			int test = 0;
-			while(!GameManager.this.gameEnded) {
-				long currentTime = TimeManager.getInstance().getTimeAsMillis();
-				while(nextLoop < currentTime) {
-					// trains move
-					for(Train train : GameManager.this.gameMap.getTrainsCopy()) {
-						train.live();
-					}
-					// bonus choice
-					ElementChoiceScript elementChoiceScript = GameManager.this.mapScript.elementChoiceScripts.peek();
-					if((elementChoiceScript != null) && (elementChoiceScript.apparitionTime.toMillis() < currentTime)) {
-						GameManager.this.mapScript.elementChoiceScripts.poll();
-						GameManager.this.viewManager.askElementChoice(elementChoiceScript.elementScripts);
-					}
-					// stations apparition
-					StationScript stationScript = GameManager.this.mapScript.stationScripts.peek();
-					if((stationScript != null) && (stationScript.apparitionTime.toMillis() < currentTime)) {
-						GameManager.this.mapScript.stationScripts.poll();
-						Station station = new Station(stationScript.position,
-						  stationScript.type,
-						  GameManager.this.viewManager.createStationView(stationScript.type),
-						  GameManager.this);
-						GameManager.this.gameMap.addStation(station);
-					}
-					// warned stations check
-					for(Station station : GameManager.this.warnedStations) {
-						station.setWarnValue(Utils.map(
-						  currentTime,
-						  station.getWarnStart(),
-						  station.getWarnEnd(),
-						  0,
-						  1
-						));
-					}
-					Station station = GameManager.this.warnedStations.peek();
-					if((station != null) && station.getWarnEnd() < currentTime) {
-						//TODO: loose the game
-						System.out.println("Game end");
-						GameManager.this.gameEnded = true;
-					}
-					// passenger apparition
-					//FIXME: test apparition, add a frequency apparition descriptor in MapScript
-					++test;
-					if(test == 200) {
-						GameManager.this.gameMap.addPassengerToStation();
-						test = 0;
-					}
-
-					nextLoop += LOOP_DELAY_MILLIS;
+			long lastTime = GameManager.this.gameContext.getTimeManager().getTimeAsMillis();
+			while(!GameManager.this.gameEnded && !GameManager.this.simulation.isEnded()) {
+				long currentTime = GameManager.this.gameContext.getTimeManager().getTimeAsMillis();
+				if(GameManager.this.fastForward && !GameManager.this.gameContext.getTimeManager().isPaused()) {
+					// the time is ignored, and not caught up when the fast forward ends
+					GameManager.this.simulation.run(FAST_FORWARD_TICKS);
 				}
-
-				try {
-					Thread.sleep(GameManager.this.refreshDelay);
-				} catch(InterruptedException e) {
-					e.printStackTrace();
+				else {
+					GameManager.this.simulation.step(currentTime - lastTime);
+					try {
+						Thread.sleep(GameManager.this.refreshDelay);
+					} catch(InterruptedException e) {
+						e.printStackTrace();
+					}
 				}
+				lastTime = currentTime;
+				GameManager.this.viewFactory.setGameTime(GameManager.this.simulation.getTime());
 			}
 		}
 	};
 
 	/**
-	 * Instantiates a new GameManager.
+	 * Instantiates a new GameManager, the simulation is driven by the TimeManager.
+	 *
+	 * @param viewFactory the view factory
+	 * @param mapScript   the map script
+	 */
+	public GameManager(ViewFactory viewFactory, MapScript mapScript) {
+		this(GameContext.getDefault(), viewFactory, mapScript, true);
+	}
+
+	/**
+	 * Instantiates a new GameManager in the default game context.
+	 *
+	 * @param viewFactory the view factory
+	 * @param mapScript   the map script
+	 * @param realTime    true to drive the simulation with the TimeManager in a dedicated thread, false to let the
+	 *                    caller drive the simulation with {@link #getSimulation()}
+	 */
+	public GameManager(ViewFactory viewFactory, MapScript mapScript, boolean realTime) {
+		this(GameContext.getDefault(), viewFactory, mapScript, realTime);
+	}
+
+	/**
+	 * Instantiates a new GameManager with a random seed.
 	 *
-	 * @param viewManager the view manager
+	 * @param gameContext the game context, its event dispatcher and time manager are used by the game
+	 * @param viewFactory the view factory
 	 * @param mapScript   the map script
+	 * @param realTime    true to drive the simulation with the TimeManager in a dedicated thread, false to let the
+	 *                    caller drive the simulation with {@link #getSimulation()}
 	 */
-	public GameManager(ViewManager viewManager, MapScript mapScript) {
-		this.refreshDelay = TimeManager.getInstance().getRefreshDelay();
+	public GameManager(@Nonnull GameContext gameContext,
+	                   ViewFactory viewFactory,
+	                   MapScript mapScript,
+	                   boolean realTime) {
+		this(gameContext, viewFactory, mapScript, new Random().nextLong(), null, realTime);
+	}
+
+	/**
+	 * Instantiates a new GameManager.
+	 *
+	 * @param gameContext        the game context, its event dispatcher and time manager are used by the game
+	 * @param viewFactory        the view factory
+	 * @param mapScript          the map script
+	 * @param seed               the seed of the simulation, a game is reproducible from its seed and the changes
+	 *                           notified to its simulation listener
+	 * @param simulationListener the simulation listener, null to not listen the simulation
+	 * @param realTime           true to drive the simulation with the TimeManager in a dedicated thread, false to
+	 *                           let the caller drive the simulation with {@link #getSimulation()}
+	 */
+	public GameManager(@Nonnull GameContext gameContext,
+	                   ViewFactory viewFactory,
+	                   MapScript mapScript,
+	                   long seed,
+	                   @Nullable SimulationListener simulationListener,
+	                   boolean realTime) {
+		this.gameContext = gameContext;
+		this.refreshDelay = this.gameContext.getTimeManager().getRefreshDelay();
 
 		this.mapScript = mapScript;
 
-		this.viewManager = viewManager;
-		this.inventory = new Inventory(this.viewManager.getInventoryView());
-		this.gameMap = new GameMap(this.inventory);
+		this.viewFactory = viewFactory;
+		this.inventory = new Inventory(this.viewFactory.getInventoryView());
+		this.gameMap = new GameMap(this.inventory, this.gameContext.getEventDispatcher());
+		this.simulation = new Simulation(this.gameMap, this.mapScript, this.viewFactory, seed, simulationListener);
+		this.gameMap.setPlayerEventManager(this.simulation);
 
-		this.viewManager.setMapSize(this.mapScript.mapWidth, this.mapScript.mapHeight);
-		this.viewManager.setWater(this.mapScript.water);
+		this.viewFactory.setMapSize(this.mapScript.mapWidth, this.mapScript.mapHeight);
+		this.viewFactory.setWater(this.mapScript.water);
 		StationScript stationScript = this.mapScript.stationScripts.peek();
 		while((stationScript != null) && (stationScript.apparitionTime == Duration.ZERO)) {
 			this.mapScript.stationScripts.poll();
-			Station station = new Station(stationScript.position,
-			  stationScript.type,
-			  viewManager.createStationView(stationScript.type),
-			  this);
-			this.gameMap.addStation(station);
+			this.simulation.addStation(stationScript);
 			stationScript = this.mapScript.stationScripts.peek();
 		}
+		this.simulation.scheduleScripts();
 
 		for(int i = 0; i < this.mapScript.initialLines; ++i) {
-			Line line = new Line(this.viewManager.createLineView(), this);
+			Line line = new Line(this.viewFactory.createLineView(), this);
 			this.inventory.addLine(line);
 			this.gameMap.addLine(line);
 		}
@@ -167,12 +179,12 @@ public class GameManager implements StationManager, LineManager {
 			this.inventory.addTrain(new Train(
 			  TrainType.NORMAL.maxSpeed,
 			  TrainType.NORMAL.acceleration,
-			  viewManager.createTrainView(TrainType.NORMAL
-			  )));
+			  viewFactory.createTrainView(TrainType.NORMAL),
+			  this.simulation));
 		}
 
 		for(int i = 0; i < this.mapScript.initialPassengerCars; ++i) {
-			this.inventory.addPassengerCar(new PassengerCar(this.viewManager.createPassengerCarView()));
+			this.inventory.addPassengerCar(new PassengerCar(this.viewFactory.createPassengerCarView()));
 		}
 
 		for(int i = 0; i < this.mapScript.initialTunnels; ++i) {
@@ -183,67 +195,112 @@ public class GameManager implements StationManager, LineManager {
 			this.inventory.addStationUpgrade(new StationUpgrade());
 		}
 
-		this.executorService.submit(this.gameLoop);
+		if(realTime) {
+			this.executorService.submit(this.gameLoop);
+		}
 		this.executorService.shutdown();
 
 		this.onInventoryElementAdditionEvent = new EventListener<InventoryElementAdditionEvent>() {
 			@Override
 			public void onEvent(InventoryElementAdditionEvent event) {
-				switch(event.elementScript.type) {
-				case TRAIN:
-					for(int i = 0; i < event.number; ++i) {
-						GameManager.this.inventory.addTrain(new Train(
-						  TrainType.NORMAL.maxSpeed,
-						  TrainType.NORMAL.acceleration,
-						  GameManager.this.viewManager.createTrainView(TrainType.NORMAL
-						  )));
-					}
-					break;
-				case STATION_UPGRADE:
-					for(int i = 0; i < event.number; ++i) {
-						GameManager.this.inventory.addStationUpgrade(new StationUpgrade());
-					}
-					break;
-				case TUNNEL:
-					for(int i = 0; i < event.number; ++i) {
-						GameManager.this.inventory.addTunnel();
+				GameManager.this.simulation.applyPlayerEvent(event, () -> {
+					switch(event.elementScript.type) {
+					case TRAIN:
+						for(int i = 0; i < event.number; ++i) {
+							GameManager.this.inventory.addTrain(new Train(
+							  TrainType.NORMAL.maxSpeed,
+							  TrainType.NORMAL.acceleration,
+							  GameManager.this.viewFactory.createTrainView(TrainType.NORMAL),
+							  GameManager.this.simulation));
+						}
+						break;
+					case STATION_UPGRADE:
+						for(int i = 0; i < event.number; ++i) {
+							GameManager.this.inventory.addStationUpgrade(new StationUpgrade());
+						}
+						break;
+					case TUNNEL:
+						for(int i = 0; i < event.number; ++i) {
+							GameManager.this.inventory.addTunnel();
+						}
+						break;
+					case LINE:
+						for(int i = 0; i < event.number; ++i) {
+							Line line = new Line(GameManager.this.viewFactory.createLineView(), GameManager.this);
+							GameManager.this.inventory.addLine(line);
+							GameManager.this.gameMap.addLine(line);
+						}
+						break;
+					case PASSENGER_CAR:
+						for(int i = 0; i < event.number; ++i) {
+							GameManager.this.inventory.addPassengerCar(new PassengerCar(GameManager.this.viewFactory.createPassengerCarView()));
+						}
+						break;
 					}
-					break;
-				case LINE:
-					for(int i = 0; i < event.number; ++i) {
-						Line line = new Line(GameManager.this.viewManager.createLineView(), GameManager.this);
-						GameManager.this.inventory.addLine(line);
-						GameManager.this.gameMap.addLine(line);
-					}
-					break;
-				case PASSENGER_CAR:
-					for(int i = 0; i < event.number; ++i) {
-						GameManager.this.inventory.addPassengerCar(new PassengerCar(GameManager.this.viewManager.createPassengerCarView()));
-					}
-					break;
-				}
+				});
 			}
 		};
-		EventDispatcher.getInstance().addListener(InventoryElementAdditionEvent.class,
+		this.gameContext.getEventDispatcher().addListener(InventoryElementAdditionEvent.class,
 		  this.onInventoryElementAdditionEvent);
 
 		this.onGameExitEvent = new EventListener<GameExitEvent>() {
 			@Override
 			public void onEvent(GameExitEvent event) {
 				GameManager.this.gameEnded = true;
+				GameManager.this.gameContext.getEventDispatcher().removeListener(InventoryElementAdditionEvent.class,
+				  GameManager.this.onInventoryElementAdditionEvent);
+				GameManager.this.gameContext.getEventDispatcher().removeListener(TimeFastForwardEvent.class,
+				  GameManager.this.onTimeFastForwardEvent);
+				GameManager.this.gameContext.getEventDispatcher().removeListener(GameExitEvent.class, this);
+				GameManager.this.gameMap.shutdown();
+			}
+		};
+		this.gameContext.getEventDispatcher().addListener(GameExitEvent.class, this.onGameExitEvent);
+
+		this.onTimeFastForwardEvent = new EventListener<TimeFastForwardEvent>() {
+			@Override
+			public void onEvent(TimeFastForwardEvent event) {
+				synchronized(GameManager.this.simulation) {
+					// the trains only live when they reach a connection or exchange passengers during the fast forward
+					if(event.fastForward && !GameManager.this.fastForward) {
+						GameManager.this.movementMode = GameManager.this.simulation.getMovementMode();
+						GameManager.this.simulation.setMovementMode(MovementMode.EVENTS);
+					}
+					else if(!event.fastForward && GameManager.this.fastForward) {
+						GameManager.this.simulation.setMovementMode(GameManager.this.movementMode);
+					}
+					GameManager.this.fastForward = event.fastForward;
+				}
 			}
 		};
-		EventDispatcher.getInstance().addListener(GameExitEvent.class, this.onGameExitEvent);
+		this.gameContext.getEventDispatcher().addListener(TimeFastForwardEvent.class, this.onTimeFastForwardEvent);
 	}
 
-	@Override
-	public void addWarnedStation(Station station) {
-		this.warnedStations.add(station);
+	/**
+	 * Gets the game context.
+	 *
+	 * @return the game context
+	 */
+	public GameContext getGameContext() {
+		return this.gameContext;
 	}
 
-	@Override
-	public void removeWarnedStation(Station station) {
-		this.warnedStations.remove(station);
+	/**
+	 * Gets the game map.
+	 *
+	 * @return the game map
+	 */
+	public GameMap getGameMap() {
+		return this.gameMap;
+	}
+
+	/**
+	 * Gets the simulation.
+	 *
+	 * @return the simulation
+	 */
+	public Simulation getSimulation() {
+		return this.simulation;
 	}
 
 	@Override
@@ -24,6 +24,7 @@
 
 package org.tiwindetea.magicmetro.model;
 
+import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
 import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
 import org.tiwindetea.magicmetro.global.eventdispatcher.EventListener;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineCreationEvent;
@@ -32,21 +33,29 @@ import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineEx
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineInnerExtensionEvent;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.StationUpgradeInventoryMoveEvent;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.TrainInventoryMoveEvent;
-import org.tiwindetea.magicmetro.model.lines.Connection;
 import org.tiwindetea.magicmetro.model.lines.Line;
 import org.tiwindetea.magicmetro.model.lines.Section;
-
+import org.tiwindetea.magicmetro.model.routing.RouteCostFunction;
+import org.tiwindetea.magicmetro.model.routing.RoutePlanner;
+import org.tiwindetea.magicmetro.model.routing.RoutingMode;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+import org.tiwindetea.magicmetro.model.routing.StationGraph;
+import org.tiwindetea.magicmetro.model.routing.TravelTimeCostFunction;
+
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Random;
-import java.util.Stack;
+import java.util.Map;
 
 /**
  * Map of the game contains trains, stations and lines that are active in the game.<p>
- * Find the best path between two stations for the passengers.
+ * Give the routes of the passengers using a routing table shared by all of them,
+ * computed in the background by a route planner. The cost of the paths is given by a route cost function.
  *
  * @author Maxime PINARD
  * @author Julien Barbier
@@ -56,115 +65,137 @@ public class GameMap {
 
 	private List<Train> trains = new LinkedList<>();
 	private Train[] trainsCopy = new Train[0]; // to avoid concurrent access
-	private List<Station> stations = new LinkedList<>();
-	private List<StationType> stationsTypes = new LinkedList<>();
+	private List<Station> stations = new ArrayList<>(); // indices in the list are the indices in the station graph
 	private List<Line> lines = new LinkedList<>();
 	private Inventory inventory;
+	private final EventDispatcher eventDispatcher;
+	private volatile PlayerEventManager playerEventManager = (event, application) -> application.run();
 
 	private final EventListener<LineCreationEvent> onLineCreationEvent = event -> {
-		for(Line line : this.lines) {
-			if(line.gameId == event.lineId) {
-				line.manage(event, this.stations);
-				GameMap.this.initLine(line);
-				break;
+		applyPlayerEvent(event, () -> {
+			for(Line line : this.lines) {
+				if(line.gameId == event.lineId) {
+					line.manage(event, this.stations);
+					GameMap.this.initLine(line);
+					updateRoutingTable(line, event.fromStationId, event.toStationId);
+					break;
+				}
 			}
-		}
-		recomputePassengersPaths();
+		});
 	};
 
 	private final EventListener<LineExtensionEvent> onLineExtensionEvent = event -> {
-		for(Line line : this.lines) {
-			if(line.gameId == event.lineId) {
-				line.manage(event, this.stations);
-				break;
+		applyPlayerEvent(event, () -> {
+			for(Line line : this.lines) {
+				if(line.gameId == event.lineId) {
+					line.manage(event, this.stations);
+					updateRoutingTable(line, event.fromStationId, event.toStationId);
+					break;
+				}
 			}
-		}
-		recomputePassengersPaths();
+		});
 	};
 
 	private final EventListener<LineInnerExtensionEvent> onLineInnerExtensionEvent = event -> {
-		for(Line line : this.lines) {
-			if(line.gameId == event.lineId) {
-				line.manage(event, this.stations);
-				break;
+		applyPlayerEvent(event, () -> {
+			for(Line line : this.lines) {
+				if(line.gameId == event.lineId) {
+					line.manage(event, this.stations);
+					updateRoutingTable(line, event.fromStationId, event.addedStationId, event.toStationId);
+					break;
+				}
 			}
-		}
-		recomputePassengersPaths();
+		});
 	};
 
 	private final EventListener<LineDecreaseEvent> onLineDecreaseEvent = event -> {
-		for(Line line : this.lines) {
-			if(line.gameId == event.lineId) {
-				line.manage(event);
-				break;
+		applyPlayerEvent(event, () -> {
+			for(Line line : this.lines) {
+				if(line.gameId == event.lineId) {
+					line.manage(event);
+					updateRoutingTable(line, event.oldStationId);
+					break;
+				}
 			}
-		}
-		recomputePassengersPaths();
+		});
 	};
 
 	private final EventListener<TrainInventoryMoveEvent> onTrainInventoryMoveEvent = event -> {
-		for(Line line : this.lines) {
-			if(line.gameId == event.lineId) {
-				Train train = this.inventory.takeTrain();
-				if(train != null) {
-					Section section = line.getSectionFromId(event.sectionId);
-					if(section == null) {
-						throw new IllegalStateException("section is not in the line");
+		applyPlayerEvent(event, () -> {
+			for(Line line : this.lines) {
+				if(line.gameId == event.lineId) {
+					Train train = this.inventory.takeTrain();
+					if(train != null) {
+						Section section = line.getSectionFromId(event.sectionId);
+						if(section == null) {
+							throw new IllegalStateException("section is not in the line");
+						}
+						train.start(section);
+						GameMap.this.addTrain(train);
 					}
-					train.start(section);
-					GameMap.this.addTrain(train);
+					break;
 				}
-				break;
 			}
-		}
+		});
 	};
 
 	private final EventListener<StationUpgradeInventoryMoveEvent> onStationUpgradeInventoryMoveEvent = event -> {
-		StationUpgrade stationUpgrade = this.inventory.takeStationUpgrade();
-		if(stationUpgrade != null) {
-			for(Station station : this.stations) {
-				if(station.gameId == event.stationId) {
-					station.upgrade(stationUpgrade);
-					break;
+		applyPlayerEvent(event, () -> {
+			StationUpgrade stationUpgrade = this.inventory.takeStationUpgrade();
+			if(stationUpgrade != null) {
+				for(Station station : this.stations) {
+					if(station.gameId == event.stationId) {
+						station.upgrade(stationUpgrade);
+						break;
+					}
 				}
 			}
-		}
+		});
 	};
 
-	private double[][] stationHeuristics;
+	private RouteCostFunction routeCostFunction = new TravelTimeCostFunction();
+	private long topologyGeneration = 0; // incremented on each change of the network
+	private final RoutePlanner routePlanner = new RoutePlanner(createStationGraph(), this.topologyGeneration);
 
 	/**
-	 * Instantiates a new GameMap.
+	 * Instantiates a new GameMap, listening to the events of the default game context.
 	 *
 	 * @param inventory the inventory
 	 */
 	public GameMap(Inventory inventory) {
+		this(inventory, EventDispatcher.getInstance());
+	}
+
+	/**
+	 * Instantiates a new GameMap.
+	 *
+	 * @param inventory       the inventory
+	 * @param eventDispatcher the event dispatcher of the game
+	 */
+	public GameMap(Inventory inventory, @Nonnull EventDispatcher eventDispatcher) {
 		this.inventory = inventory;
-		EventDispatcher.getInstance().addListener(LineCreationEvent.class, this.onLineCreationEvent);
-		EventDispatcher.getInstance().addListener(LineExtensionEvent.class, this.onLineExtensionEvent);
-		EventDispatcher.getInstance().addListener(LineInnerExtensionEvent.class, this.onLineInnerExtensionEvent);
-		EventDispatcher.getInstance().addListener(LineDecreaseEvent.class, this.onLineDecreaseEvent);
-		EventDispatcher.getInstance().addListener(TrainInventoryMoveEvent.class, this.onTrainInventoryMoveEvent);
-		EventDispatcher.getInstance()
-		  .addListener(StationUpgradeInventoryMoveEvent.class, this.onStationUpgradeInventoryMoveEvent);
+		this.eventDispatcher = eventDispatcher;
+		this.eventDispatcher.addListener(LineCreationEvent.class, this.onLineCreationEvent);
+		this.eventDispatcher.addListener(LineExtensionEvent.class, this.onLineExtensionEvent);
+		this.eventDispatcher.addListener(LineInnerExtensionEvent.class, this.onLineInnerExtensionEvent);
+		this.eventDispatcher.addListener(LineDecreaseEvent.class, this.onLineDecreaseEvent);
+		this.eventDispatcher.addListener(TrainInventoryMoveEvent.class, this.onTrainInventoryMoveEvent);
+		this.eventDispatcher.addListener(StationUpgradeInventoryMoveEvent.class,
+		  this.onStationUpgradeInventoryMoveEvent);
 	}
 
 	/**
-	 * Create a passenger randomly and add the to a randomly chosen station.
+	 * Sets the player event manager, deciding when the events of the player are applied to the map. By default,
+	 * they are applied in the thread firing them.
 	 *
-	 * @return the passenger
+	 * @param playerEventManager the player event manager
 	 */
-	public Passenger addPassengerToStation() {
-		Random random = new Random();
-		Station station = this.stations.get(random.nextInt(this.stations.size()));
-		StationType wantedStationType = this.stationsTypes.get(random.nextInt(this.stationsTypes.size()));
-		while(wantedStationType == station.getType()) { //TODO: do it a better way
-			wantedStationType = this.stationsTypes.get(random.nextInt(this.stationsTypes.size()));
-		}
-		Passenger passenger = new Passenger(station, wantedStationType);
-		passenger.setPath(pathFinding(station, wantedStationType));
-		station.addPassenger(passenger);
-		return passenger;
+	public void setPlayerEventManager(@Nonnull PlayerEventManager playerEventManager) {
+		this.playerEventManager = playerEventManager;
+	}
+
+	private void applyPlayerEvent(@Nonnull Event event, @Nonnull Runnable application) {
+		this.playerEventManager.applyPlayerEvent(event, application);
 	}
 
 	private void initLine(Line line) {
@@ -175,12 +206,50 @@ public class GameMap {
 		}
 	}
 
-	private void recomputePassengersPaths() {
-		for(Station station : this.stations) {
-			for(Passenger passenger : station.getPassengers()) {
-				passenger.setPath(pathFinding(station, passenger.getWantedStation()));
+	/**
+	 * Create a station graph snapshot of the map, with the costs given by the route cost function.
+	 *
+	 * @return the station graph
+	 */
+	private synchronized StationGraph createStationGraph() {
+		Map<Line, Integer> trainsNumbers = new HashMap<>();
+		for(Train train : this.trains) {
+			if(train.getLine() != null) {
+				Integer trainsNumber = trainsNumbers.get(train.getLine());
+				trainsNumbers.put(train.getLine(), (trainsNumber == null) ? 1 : trainsNumber + 1);
 			}
 		}
+		return new StationGraph(this.stations, this.lines, trainsNumbers, this.routeCostFunction);
+	}
+
+	/**
+	 * Increment the topology generation and ask the route planner for the routing table of the new generation.<p>
+	 * Only the station graph snapshot is built in the calling thread, the table is computed in the background.
+	 * The routes of the passengers are not updated, they are resolved again when a train asks for them.
+	 *
+	 * @param touchedStations the stations whose edges may have changed
+	 */
+	private synchronized void networkChanged(@Nonnull Collection<Station> touchedStations) {
+		++this.topologyGeneration;
+		this.routePlanner.update(createStationGraph(), touchedStations, this.topologyGeneration);
+	}
+
+	/**
+	 * Ask the route planner for a new routing table after a line changed.
+	 *
+	 * @param line        the line
+	 * @param stationsIds the ids of the stations at the ends of the added or removed sections
+	 */
+	private synchronized void updateRoutingTable(Line line, int... stationsIds) {
+		// the costs of all the stations of the line can change with the line length or its trains
+		List<Station> touchedStations = new ArrayList<>(line.getStations());
+		for(int stationId : stationsIds) {
+			Station station = getStationWithId(stationId);
+			if(station != null) {
+				touchedStations.add(station);
+			}
+		}
+		networkChanged(touchedStations);
 	}
 
 	/**
@@ -192,6 +261,9 @@ public class GameMap {
 	public synchronized boolean addTrain(Train train) {
 		boolean result = this.trains.add(train);
 		this.trainsCopy = this.trains.toArray(new Train[this.trains.size()]);
+		if(train.getLine() != null) {
+			updateRoutingTable(train.getLine());
+		}
 		return result;
 	}
 
@@ -204,6 +276,9 @@ public class GameMap {
 	public synchronized boolean removeTrain(Train train) {
 		boolean result = this.trains.remove(train);
 		this.trainsCopy = this.trains.toArray(new Train[this.trains.size()]);
+		if(result && train.getLine() != null) {
+			updateRoutingTable(train.getLine());
+		}
 		return result;
 	}
 
@@ -222,9 +297,10 @@ public class GameMap {
 	 * @param station the station
 	 * @return true if the stations in the map changed, false otherwise
 	 */
-	public boolean addStation(Station station) {
-		this.stationsTypes.add(station.getType());
-		return this.stations.add(station);
+	public synchronized boolean addStation(Station station) {
+		boolean result = this.stations.add(station);
+		networkChanged(Collections.<Station>emptyList());
+		return result;
 	}
 
 	/**
@@ -233,8 +309,10 @@ public class GameMap {
 	 * @param line the line
 	 * @return true if the lines in the map changed, false otherwise
 	 */
-	public boolean addLine(Line line) {
-		return this.lines.add(line);
+	public synchronized boolean addLine(Line line) {
+		boolean result = this.lines.add(line);
+		networkChanged(Collections.<Station>emptyList());
+		return result;
 	}
 
 	/**
@@ -243,8 +321,12 @@ public class GameMap {
 	 * @param line the line
 	 * @return true if the line was removed, false otherwise
 	 */
-	public boolean removeLine(Line line) {
-		return this.lines.remove(line);
+	public synchronized boolean removeLine(Line line) {
+		boolean result = this.lines.remove(line);
+		if(result) {
+			networkChanged(this.stations);
+		}
+		return result;
 	}
 
 	/**
@@ -289,134 +371,84 @@ public class GameMap {
 		return null;
 	}
 
-	// All function for path finding (not optimized)
+	/**
+	 * Sets the route cost function, all the routes are computed again.
+	 *
+	 * @param routeCostFunction the route cost function
+	 */
+	public synchronized void setRouteCostFunction(@Nonnull RouteCostFunction routeCostFunction) {
+		this.routeCostFunction = routeCostFunction;
+		networkChanged(this.stations);
+	}
 
-	private synchronized double distanceBetweenTwoStationConnected(Station stationA, Station stationB) {
-		if(stationA != stationB) {
-			for(Connection connection : stationA.getConnections()) {
-				if(connection.getLeftSubSection() != null && connection.getLeftSubSection()
-				  .getSection()
-				  .getOtherStationConnection(connection)
-				  .getStation() == stationB) {
-					return connection.getLeftSubSection().getSection().getLength();
-				}
-				if(connection.getRightSubSection() != null && connection.getRightSubSection()
-				  .getSection()
-				  .getOtherStationConnection(connection)
-				  .getStation() == stationB) {
-					return connection.getRightSubSection().getSection().getLength();
-				}
-			}
-			return -1;
-		}
-		return 0;
+	/**
+	 * Sets the routing mode of the route planner, the routes don't change but are computed with the new mode from
+	 * now on.
+	 *
+	 * @param routingMode the routing mode
+	 */
+	public synchronized void setRoutingMode(@Nonnull RoutingMode routingMode) {
+		this.routePlanner.setRoutingMode(routingMode);
+		networkChanged(Collections.<Station>emptyList());
 	}
 
-	private synchronized void initHeuristics(Station station) {
-		int index = this.stations.indexOf(station);
-		int i = 0;
-		this.stationHeuristics = new double[this.stations.size()][this.stations.size()];
-		for(Station station1 : this.stations) {
-			if(station1 == station) {
-				this.stationHeuristics[index][i] = 0;
-			}
-			else {
-				this.stationHeuristics[index][i] = Double.MAX_VALUE;
-			}
-			++i;
-		}
+	/**
+	 * Sets if the routing tables are computed synchronously on each change of the network instead of in the
+	 * background, so the routes of a game only depend on its events.
+	 *
+	 * @param synchronousRouting true to compute the routing tables synchronously, false otherwise
+	 * @see RoutePlanner#setSynchronous(boolean)
+	 */
+	public void setSynchronousRouting(boolean synchronousRouting) {
+		this.routePlanner.setSynchronous(synchronousRouting);
 	}
 
-	private void updateDistance(Station stationA, Station stationB, Station beginStation, Station[] predecessor) {
-		double i = distanceBetweenTwoStationConnected(stationA, stationB);
-		int index = this.stations.indexOf(stationA);
-		int index1 = this.stations.indexOf(stationB);
-		int index2 = this.stations.indexOf(beginStation);
-		if(i >= 0) {
-			if(this.stationHeuristics[index2][index1] > this.stationHeuristics[index2][index] + i) {
-				this.stationHeuristics[index2][index1] = this.stationHeuristics[index2][index] + i;
-				predecessor[index1] = stationA;
-			}
-		}
+	/**
+	 * Gets the topology generation, incremented on each change of the network.<p>
+	 * The routing table of a generation is published by the route planner some time after the change.
+	 *
+	 * @return the topology generation
+	 * @see RoutingTable#getVersion()
+	 */
+	public synchronized long getTopologyGeneration() {
+		return this.topologyGeneration;
 	}
 
 	/**
-	 * Path-finding for the passenger.
-	 * Not Optimized
+	 * Gets the last routing table published by the route planner.
 	 *
-	 * @param station     the station of the passenger
-	 * @param stationType the type of station wanted
-	 * @return the path
+	 * @return the routing table
 	 */
-	public synchronized Stack<Station> pathFinding(Station station, StationType stationType) {
-		Stack<Station> result = new Stack<>();
-		Station[] predecessor = new Station[this.stations.size()];
-		Station current = station;
-
-		initHeuristics(station);
-		if(station.getType() != stationType) {
-			PriorityQueue<Station> path = new PriorityQueue<>(new Comparator<Station>() {
-				@Override
-				public int compare(Station o1, Station o2) {
-					return (int) (GameMap.this.stationHeuristics[GameMap.this.stations.indexOf(station)][GameMap.this.stations
-					  .indexOf(o1)] -
-					  GameMap.this.stationHeuristics[GameMap.this.stations.indexOf(station)][GameMap.this.stations.indexOf(
-						o2)]);
-				}
-			});
-			path.add(station);
-			Stack<Station> finished = new Stack<>();
-			predecessor[this.stations.indexOf(station)] = current;
-			while(!path.isEmpty()) {
-				current = path.poll();
-				if(current.getType() == stationType) {
-					while(current != station) {
-						int index = this.stations.indexOf(current);
-						result.push(current);
-						current = predecessor[index];
-					}
-					return result;
-				}
-				for(Connection connection : current.getConnections()) {
-					if(connection.getRightSubSection() != null &&
-					  !finished.contains(connection.getRightSubSection()
-						.getSection()
-						.getOtherStationConnection(connection)
-						.getStation())) {
-						updateDistance(connection.getStation(),
-						  connection.getRightSubSection()
-							.getSection()
-							.getOtherStationConnection(connection)
-							.getStation(),
-						  station,
-						  predecessor);
-						path.add(connection.getRightSubSection()
-						  .getSection()
-						  .getOtherStationConnection(connection)
-						  .getStation());
-					}
-					if(connection.getLeftSubSection() != null &&
-					  !finished.contains(connection.getLeftSubSection()
-						.getSection()
-						.getOtherStationConnection(connection)
-						.getStation())) {
-						updateDistance(connection.getStation(),
-						  connection.getLeftSubSection()
-							.getSection()
-							.getOtherStationConnection(connection)
-							.getStation(),
-						  station,
-						  predecessor);
-						path.add(connection.getLeftSubSection()
-						  .getSection()
-						  .getOtherStationConnection(connection)
-						  .getStation());
-					}
-				}
-				finished.add(current);
-			}
-		}
-		return null;
+	@Nonnull
+	public RoutingTable getRoutingTable() {
+		return this.routePlanner.getRoutingTable();
+	}
+
+	/**
+	 * Gets the newest routing table published by the route planner whose version is not greater than a version.
+	 *
+	 * @param maxVersion the maximum version
+	 * @return the routing table
+	 * @see RoutePlanner#getRoutingTable(long)
+	 */
+	@Nonnull
+	public RoutingTable getRoutingTable(long maxVersion) {
+		return this.routePlanner.getRoutingTable(maxVersion);
+	}
+
+	/**
+	 * Stop the route planner of the map and remove its listeners from the event dispatcher, the last published
+	 * routing table is still available.
+	 */
+	public void shutdown() {
+		this.eventDispatcher.removeListener(LineCreationEvent.class, this.onLineCreationEvent);
+		this.eventDispatcher.removeListener(LineExtensionEvent.class, this.onLineExtensionEvent);
+		this.eventDispatcher.removeListener(LineInnerExtensionEvent.class, this.onLineInnerExtensionEvent);
+		this.eventDispatcher.removeListener(LineDecreaseEvent.class, this.onLineDecreaseEvent);
+		this.eventDispatcher.removeListener(TrainInventoryMoveEvent.class, this.onTrainInventoryMoveEvent);
+		this.eventDispatcher.removeListener(StationUpgradeInventoryMoveEvent.class,
+		  this.onStationUpgradeInventoryMoveEvent);
+		this.routePlanner.shutdown();
 	}
 
 }
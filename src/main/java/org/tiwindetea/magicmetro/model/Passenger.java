@@ -24,10 +24,13 @@
 
 package org.tiwindetea.magicmetro.model;
 
-import java.util.Stack;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
 
 /**
- * Passenger, appear in a station and is moved by trains according to his path.
+ * Passenger, appear in a station and is moved by trains according to his route.<p>
+ * The route is shared with the other passengers, it is given by the routing table of the map. A passenger only
+ * keep the next node of his route in the station graph and the version of the routing table this node comes from,
+ * the route is resolved again only when a train asks for it and the routing table changed.
  *
  * @author Julien Barbier
  * @author Maxime PINARD
@@ -35,7 +38,8 @@ import java.util.Stack;
  */
 public class Passenger {
 
-	private Stack<Station> path = new Stack<>();
+	private int nextNode = -1; // -1 if no route
+	private long routeVersion = -1; // -1 if the route was never computed
 	private Station station;
 	private final StationType stationWanted;
 
@@ -72,20 +76,32 @@ public class Passenger {
 
 
 	/**
-	 * Sets path.
+	 * Sets the route.
 	 *
-	 * @param path the path
+	 * @param routeVersion the version of the routing table
+	 * @param nextNode     the next node of the route in the station graph of the routing table, -1 if no route
 	 */
-	public void setPath(Stack<Station> path) {
-		this.path = path;
+	public void setRoute(long routeVersion, int nextNode) {
+		this.routeVersion = routeVersion;
+		this.nextNode = nextNode;
 	}
 
 	/**
-	 * Gets path.
+	 * Gets the next node of the route in the station graph of the routing table.
 	 *
-	 * @return the path
+	 * @return the next node, -1 if no route
 	 */
-	public Stack<Station> getPath() {
-		return this.path;
+	public int getNextNode() {
+		return this.nextNode;
+	}
+
+	/**
+	 * Gets the version of the routing table of the route.
+	 *
+	 * @return the route version
+	 * @see RoutingTable#getVersion()
+	 */
+	public long getRouteVersion() {
+		return this.routeVersion;
 	}
 }
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model;
+
+import org.tiwindetea.magicmetro.global.scripts.DemandScript;
+import org.tiwindetea.magicmetro.global.util.AliasTable;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Passenger demand of a game, make the passengers appear in the stations as described by a {@link DemandScript}.
+ * <p>
+ * The stations and the wanted station types are drawn from alias tables, built again only when a station
+ * appears, with the random generator of the simulation so a seeded game is reproducible. The passengers appear when
+ * the simulation calls {@link #live(long, long)}, at the time given by {@link #getWaitingMillis(long)}.
+ *
+ * @author Maxime PINARD
+ * @see Simulation
+ * @since 0.1
+ */
+class PassengerDemand {
+
+	private static final StationType[] STATION_TYPES = StationType.values();
+	private static final int TYPES_NUMBER = STATION_TYPES.length;
+	private static final long MAX_WAITING_MILLIS = 1000; // follow the changes of the rate
+
+	private final DemandScript demandScript;
+	private final Random random;
+
+	private final List<Station> stations = new ArrayList<>();
+	private final List<Double> stationsWeights = new ArrayList<>();
+	private final int[] stationsNumbers = new int[TYPES_NUMBER]; // number of stations of each type
+	private AliasTable stationsTable = null; // null if no station has a positive weight
+	private final AliasTable[] destinationsTables = new AliasTable[TYPES_NUMBER]; // by station type
+	private boolean tablesValid = true;
+
+	private double pendingPassengers = 0;
+
+	/**
+	 * Instantiates a new PassengerDemand.
+	 *
+	 * @param demandScript the demand script
+	 * @param random       the random generator
+	 */
+	PassengerDemand(@Nonnull DemandScript demandScript, @Nonnull Random random) {
+		this.demandScript = demandScript;
+		this.random = random;
+	}
+
+	/**
+	 * Add a station where passengers can appear.
+	 *
+	 * @param station the station
+	 * @param weight  the passenger weight of the station
+	 */
+	void addStation(@Nonnull Station station, double weight) {
+		this.stations.add(station);
+		this.stationsWeights.add(weight);
+		++this.stationsNumbers[station.getType().ordinal()];
+		this.tablesValid = false;
+	}
+
+	/**
+	 * Make the passengers of a period appear.
+	 *
+	 * @param fromMillis the start time of the period as millis, the end time of the previous period
+	 * @param toMillis   the end time of the period as millis
+	 * @return the number of passengers who appeared
+	 */
+	int live(long fromMillis, long toMillis) {
+		this.pendingPassengers += this.demandScript.getPassengers(fromMillis, toMillis);
+		if(this.pendingPassengers < 1) {
+			return 0;
+		}
+		int passengersNumber = (int) this.pendingPassengers;
+		this.pendingPassengers -= passengersNumber;
+
+		if(!this.tablesValid) {
+			updateTables();
+		}
+		if(this.stationsTable == null) {
+			return 0;
+		}
+		int addedPassengers = 0;
+		for(int i = 0; i < passengersNumber; ++i) {
+			Station station = this.stations.get(this.stationsTable.sample(this.random));
+			AliasTable destinationsTable = this.destinationsTables[station.getType().ordinal()];
+			if(destinationsTable != null) {
+				StationType wantedStationType = STATION_TYPES[destinationsTable.sample(this.random)];
+				station.addPassenger(new Passenger(station, wantedStationType)); // route resolved when a train asks for it
+				++addedPassengers;
+			}
+		}
+		return addedPassengers;
+	}
+
+	/**
+	 * Gets the time until the next passenger appears at the current rate.
+	 *
+	 * @param timeMillis the current time as millis
+	 * @return the time as millis, at most a second so the changes of the rate are followed
+	 */
+	long getWaitingMillis(long timeMillis) {
+		double rate = this.demandScript.getRate(timeMillis);
+		if(rate <= 0) {
+			return MAX_WAITING_MILLIS;
+		}
+		return Math.min((long) Math.ceil((1 - this.pendingPassengers) * 1000 / rate), MAX_WAITING_MILLIS);
+	}
+
+	private void updateTables() {
+		this.tablesValid = true;
+
+		double[] weights = new double[this.stations.size()];
+		boolean positiveWeight = false;
+		for(int i = 0; i < weights.length; ++i) {
+			weights[i] = Math.max(this.stationsWeights.get(i), 0);
+			positiveWeight |= (weights[i] > 0);
+		}
+		this.stationsTable = positiveWeight ? new AliasTable(weights) : null;
+
+		for(StationType stationType : STATION_TYPES) {
+			double[] typesWeights = new double[TYPES_NUMBER];
+			positiveWeight = false;
+			for(StationType wantedStationType : STATION_TYPES) {
+				if(wantedStationType != stationType) {
+					int type = wantedStationType.ordinal();
+					typesWeights[type] = this.stationsNumbers[type]
+					  * Math.max(this.demandScript.getDestinationWeight(wantedStationType), 0);
+					positiveWeight |= (typesWeights[type] > 0);
+				}
+			}
+			this.destinationsTables[stationType.ordinal()] = positiveWeight ? new AliasTable(typesWeights) : null;
+		}
+	}
+
+}
@@ -0,0 +1,432 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model;
+
+import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
+import org.tiwindetea.magicmetro.global.scripts.ElementChoiceScript;
+import org.tiwindetea.magicmetro.global.scripts.MapScript;
+import org.tiwindetea.magicmetro.global.scripts.StationScript;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+import org.tiwindetea.magicmetro.view.ViewFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simulation of a game, advance the game by fixed ticks independently of the wall clock.<p>
+ * The driver gives the elapsed time to {@link #step(long)}, the simulation runs as many ticks as fit in the
+ * elapsed time, but never more than the maximum number of ticks per step: when the driver is late (after a
+ * garbage collection pause or at high speed on a slow computer), the ticks beyond the maximum are dropped and the
+ * game slows down instead of freezing while catching up. All the game times (apparitions, warnings) are
+ * simulation times, so dropped ticks don't shorten them.<p>
+ * The timed events (apparitions of the stations and of the element choices, passengers, ends of the warnings) are
+ * scheduled by tick in an {@link EventScheduler}, all the events of a tick fire after the trains live.<p>
+ * The events of the player are queued and applied between two ticks by the thread running the simulation, and each
+ * tick uses the routing table published when it starts. A {@link SimulationListener} is notified of these changes
+ * with their tick, so a game can be reproduced from its seed and its listened changes.
+ *
+ * @author Maxime PINARD
+ * @see GameManager
+ * @since 0.1
+ */
+public class Simulation implements StationManager, TrainManager, PlayerEventManager {
+
+	/**
+	 * The duration of a tick as milliseconds of simulation time.
+	 */
+	public static final int TICK_MILLIS = 10;
+
+	/**
+	 * The default maximum number of ticks run by a step.
+	 */
+	public static final int DEFAULT_MAX_TICKS_PER_STEP = 25;
+
+	private static final int PARALLEL_MOVEMENT_TRAINS = 128; // below, moving the trains in parallel is slower
+
+	private final GameMap gameMap;
+	private final MapScript mapScript;
+	private final ViewFactory viewFactory;
+	private final Random random;
+	private final PassengerDemand passengerDemand;
+	private final SimulationListener simulationListener; // null if the simulation is not listened
+	private final Queue<Runnable> playerEvents = new ConcurrentLinkedQueue<>(); // applied between two ticks
+
+	private final EventScheduler eventScheduler = new EventScheduler();
+	private final Map<Station, EventScheduler.ScheduledEvent> warnedStations = new HashMap<>(); // to the warn ends
+	private long lastDemandTime = 0;
+
+	private volatile long time = 0; // millis, read by the trains moving in parallel
+	private long ticks = 0;
+	private long droppedTicks = 0;
+	private long pendingMillis = 0; // elapsed time not yet simulated, less than a tick
+	private int maxTicksPerStep = DEFAULT_MAX_TICKS_PER_STEP;
+	private boolean ended = false;
+	private long routingVersion = -1; // version of the routing table of the last tick
+	private long maxRoutingVersion = Long.MAX_VALUE;
+
+	private MovementMode movementMode = MovementMode.TICKS;
+	private final TrainScheduler trainScheduler = new TrainScheduler();
+	private Train[] movingTrains = new Train[0];
+	private Train[] stoppedTrains = new Train[0];
+
+	/**
+	 * Instantiates a new Simulation with a random seed.
+	 *
+	 * @param gameMap     the game map
+	 * @param mapScript   the map script
+	 * @param viewFactory the view factory
+	 */
+	public Simulation(@Nonnull GameMap gameMap, @Nonnull MapScript mapScript, @Nonnull ViewFactory viewFactory) {
+		this(gameMap, mapScript, viewFactory, new Random().nextLong(), null);
+	}
+
+	/**
+	 * Instantiates a new Simulation.
+	 *
+	 * @param gameMap            the game map
+	 * @param mapScript          the map script
+	 * @param viewFactory        the view factory
+	 * @param seed               the seed of the random generator of the simulation
+	 * @param simulationListener the simulation listener, null to not listen the simulation
+	 */
+	public Simulation(@Nonnull GameMap gameMap,
+	                  @Nonnull MapScript mapScript,
+	                  @Nonnull ViewFactory viewFactory,
+	                  long seed,
+	                  @Nullable SimulationListener simulationListener) {
+		this.gameMap = gameMap;
+		this.mapScript = mapScript;
+		this.viewFactory = viewFactory;
+		this.random = new Random(seed);
+		this.simulationListener = simulationListener;
+		this.passengerDemand = new PassengerDemand(this.mapScript.demandScript, this.random);
+		scheduleDemand();
+	}
+
+	/**
+	 * Schedule the apparitions of the stations and of the element choices of the map script, they are removed from
+	 * the map script.
+	 */
+	synchronized void scheduleScripts() {
+		StationScript stationScript;
+		while((stationScript = this.mapScript.stationScripts.poll()) != null) {
+			StationScript scheduledStationScript = stationScript;
+			this.eventScheduler.schedule(getTickAfter(stationScript.apparitionTime.toMillis()),
+			  () -> addStation(scheduledStationScript));
+		}
+		ElementChoiceScript elementChoiceScript;
+		while((elementChoiceScript = this.mapScript.elementChoiceScripts.poll()) != null) {
+			ElementChoiceScript scheduledElementChoiceScript = elementChoiceScript;
+			this.eventScheduler.schedule(getTickAfter(elementChoiceScript.apparitionTime.toMillis()),
+			  () -> this.viewFactory.askElementChoice(scheduledElementChoiceScript.elementScripts));
+		}
+	}
+
+	/**
+	 * Add the station described by a station script to the map.
+	 *
+	 * @param stationScript the station script
+	 */
+	synchronized void addStation(@Nonnull StationScript stationScript) {
+		Station station = new Station(stationScript.position,
+		  stationScript.type,
+		  this.viewFactory.createStationView(stationScript.type),
+		  this);
+		this.gameMap.addStation(station);
+		this.passengerDemand.addStation(station, stationScript.passengerWeight);
+	}
+
+	/**
+	 * Advance the simulation by an elapsed time.<p>
+	 * The ticks exceeding the maximum number of ticks per step are dropped.
+	 *
+	 * @param dtMillis the elapsed time as milliseconds, negative values are ignored
+	 * @return the number of ticks run
+	 */
+	public synchronized int step(long dtMillis) {
+		this.pendingMillis += Math.max(dtMillis, 0);
+		long ticksNumber = this.pendingMillis / TICK_MILLIS;
+		this.pendingMillis %= TICK_MILLIS;
+		if(ticksNumber > this.maxTicksPerStep) {
+			this.droppedTicks += ticksNumber - this.maxTicksPerStep;
+			ticksNumber = this.maxTicksPerStep;
+		}
+
+		return run((int) ticksNumber);
+	}
+
+	/**
+	 * Run a number of ticks, as fast as possible.
+	 *
+	 * @param ticksNumber the number of ticks
+	 * @return the number of ticks run, lower than the number of ticks if the game ended
+	 */
+	public synchronized int run(int ticksNumber) {
+		applyPlayerEvents();
+		int ticksRun = 0;
+		while(ticksRun < ticksNumber && !this.ended) {
+			tick();
+			++ticksRun;
+		}
+		return ticksRun;
+	}
+
+	/**
+	 * Run a single tick of the simulation.
+	 */
+	public synchronized void tick() {
+		applyPlayerEvents();
+		RoutingTable routingTable = this.gameMap.getRoutingTable(this.maxRoutingVersion);
+		if(routingTable.getVersion() != this.routingVersion) {
+			this.routingVersion = routingTable.getVersion();
+			if(this.simulationListener != null) {
+				this.simulationListener.onRoutingTableChange(routingTable, this.ticks);
+			}
+		}
+		this.time += TICK_MILLIS;
+		++this.ticks;
+
+		// trains move
+		if(this.movementMode == MovementMode.EVENTS) {
+			this.trainScheduler.live(this.gameMap.getTrainsCopy(), routingTable, this.ticks);
+		}
+		else {
+			liveTrains(this.gameMap.getTrainsCopy(), routingTable);
+		}
+		// timed events
+		this.eventScheduler.advance(this.ticks);
+		// events of the player fired by the timed events, like the element choices of a headless game
+		applyPlayerEvents();
+	}
+
+	@Override
+	public void applyPlayerEvent(@Nonnull Event event, @Nonnull Runnable application) {
+		this.playerEvents.add(() -> {
+			if(this.simulationListener != null) {
+				this.simulationListener.onPlayerEvent(event, this.ticks);
+			}
+			application.run();
+		});
+	}
+
+	/**
+	 * Apply the queued events of the player, done before and after each tick. The events fired while applying are
+	 * applied too.
+	 */
+	public synchronized void applyPlayerEvents() {
+		Runnable playerEvent;
+		while((playerEvent = this.playerEvents.poll()) != null) {
+			try {
+				playerEvent.run();
+			} catch(RuntimeException e) {
+				// an invalid event of the player must not stop the thread running the simulation
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Gets the first tick whose time is after a time.
+	 *
+	 * @param timeMillis the time as millis
+	 * @return the tick
+	 */
+	private static long getTickAfter(long timeMillis) {
+		return Math.floorDiv(timeMillis, TICK_MILLIS) + 1;
+	}
+
+	private void scheduleDemand() {
+		long waitingTicks = (this.passengerDemand.getWaitingMillis(this.time) + TICK_MILLIS - 1) / TICK_MILLIS;
+		this.eventScheduler.schedule(this.ticks + Math.max(waitingTicks, 1), () -> {
+			this.passengerDemand.live(this.lastDemandTime, this.time);
+			this.lastDemandTime = this.time;
+			scheduleDemand();
+		});
+	}
+
+	private void endGame() {
+		// the drivers of the simulation stop when isEnded() is true
+		this.ended = true;
+	}
+
+	/**
+	 * Make the trains live for a tick in two phases: the moving trains in parallel, then the trains at stations in
+	 * the order of the map so the passenger exchanges are the same as in a serial run.
+	 *
+	 * @param trains       the trains of the map
+	 * @param routingTable the routing table
+	 */
+	private void liveTrains(@Nonnull Train[] trains, @Nonnull RoutingTable routingTable) {
+		if((trains.length < PARALLEL_MOVEMENT_TRAINS) || (ForkJoinPool.getCommonPoolParallelism() < 2)) {
+			for(Train train : trains) {
+				train.live(routingTable);
+			}
+			return;
+		}
+
+		if(this.movingTrains.length < trains.length) {
+			this.movingTrains = new Train[trains.length];
+			this.stoppedTrains = new Train[trains.length];
+		}
+		int movingTrainsNumber = 0;
+		int stoppedTrainsNumber = 0;
+		for(Train train : trains) {
+			if(train.isAtStation()) {
+				this.stoppedTrains[stoppedTrainsNumber++] = train;
+			}
+			else {
+				this.movingTrains[movingTrainsNumber++] = train;
+			}
+		}
+
+		// movement phase, a train arriving at a station waits for the next tick to exchange passengers
+		ForkJoinPool.commonPool().invoke(new TrainsMovement(this.movingTrains, 0, movingTrainsNumber, routingTable));
+		// exchange phase
+		for(int i = 0; i < stoppedTrainsNumber; ++i) {
+			this.stoppedTrains[i].live(routingTable);
+		}
+		Arrays.fill(this.movingTrains, 0, movingTrainsNumber, null);
+		Arrays.fill(this.stoppedTrains, 0, stoppedTrainsNumber, null);
+	}
+
+	@Override
+	public void addWarnedStation(Station station) {
+		// the views animate the warnings from their start and end
+		this.warnedStations.put(station,
+		  this.eventScheduler.schedule(getTickAfter(station.getWarnEnd()), this::endGame));
+	}
+
+	@Override
+	public void removeWarnedStation(Station station) {
+		EventScheduler.ScheduledEvent warnEnd = this.warnedStations.remove(station);
+		if(warnEnd != null) {
+			warnEnd.cancel();
+		}
+	}
+
+	@Override
+	public long getTime() {
+		return this.time;
+	}
+
+	/**
+	 * Gets the number of ticks run since the beginning of the simulation.
+	 *
+	 * @return the number of ticks
+	 */
+	public synchronized long getTicks() {
+		return this.ticks;
+	}
+
+	/**
+	 * Gets the number of ticks dropped since the beginning of the simulation because the driver was late.
+	 *
+	 * @return the number of dropped ticks
+	 */
+	public synchronized long getDroppedTicks() {
+		return this.droppedTicks;
+	}
+
+	/**
+	 * Gets the maximum number of ticks run by a step.
+	 *
+	 * @return the maximum number of ticks
+	 */
+	public synchronized int getMaxTicksPerStep() {
+		return this.maxTicksPerStep;
+	}
+
+	/**
+	 * Sets the maximum number of ticks run by a step, the maximum time the simulation can catch up at once.
+	 *
+	 * @param maxTicksPerStep the maximum number of ticks, values lower than 1 are replaced by 1
+	 */
+	public synchronized void setMaxTicksPerStep(int maxTicksPerStep) {
+		this.maxTicksPerStep = Math.max(maxTicksPerStep, 1);
+	}
+
+	/**
+	 * Gets the movement mode of the trains.
+	 *
+	 * @return the movement mode
+	 */
+	public synchronized MovementMode getMovementMode() {
+		return this.movementMode;
+	}
+
+	/**
+	 * Sets the movement mode of the trains, used from the next tick.
+	 *
+	 * @param movementMode the movement mode
+	 */
+	public synchronized void setMovementMode(@Nonnull MovementMode movementMode) {
+		if(this.movementMode == MovementMode.EVENTS) {
+			this.trainScheduler.clear(this.ticks);
+		}
+		this.movementMode = movementMode;
+		if(this.simulationListener != null) {
+			this.simulationListener.onMovementModeChange(movementMode, this.ticks);
+		}
+	}
+
+	/**
+	 * Sets the maximum version of the routing tables, the next ticks use the newest published routing table whose
+	 * version is not greater. Used to replay the routing tables of a recorded game, the maximum version is not
+	 * limited by default.
+	 *
+	 * @param maxRoutingVersion the maximum version of the routing tables
+	 * @see SimulationListener#onRoutingTableChange(RoutingTable, long)
+	 */
+	public synchronized void setMaxRoutingVersion(long maxRoutingVersion) {
+		this.maxRoutingVersion = maxRoutingVersion;
+	}
+
+	/**
+	 * Update the positions of the trains, needed to observe the trains in the {@link MovementMode#EVENTS} movement
+	 * mode where the positions are only updated when the trains reach a connection.
+	 */
+	public synchronized void updateTrainsPositions() {
+		if(this.movementMode == MovementMode.EVENTS) {
+			this.trainScheduler.updatePositions(this.ticks);
+		}
+	}
+
+	/**
+	 * Check if the game ended.
+	 *
+	 * @return true if the game ended, false otherwise
+	 */
+	public synchronized boolean isEnded() {
+		return this.ended;
+	}
+
+}
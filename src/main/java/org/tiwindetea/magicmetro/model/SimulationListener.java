@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model;
+
+import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Listener of the changes of a simulation that don't come from its ticks: the events of the player, the routing
+ * tables computed in the background and the movement modes. The changes are notified in the order they are
+ * applied, with the number of ticks run before them, by the thread running the simulation.
+ *
+ * @author Maxime PINARD
+ * @see Simulation
+ * @since 0.1
+ */
+public interface SimulationListener {
+
+	/**
+	 * An event of the player is applied to the simulation.
+	 *
+	 * @param event the event
+	 * @param ticks the number of ticks run before the event
+	 */
+	void onPlayerEvent(@Nonnull Event event, long ticks);
+
+	/**
+	 * The ticks use a new routing table.
+	 *
+	 * @param routingTable the routing table
+	 * @param ticks        the number of ticks run before the routing table
+	 */
+	void onRoutingTableChange(@Nonnull RoutingTable routingTable, long ticks);
+
+	/**
+	 * The ticks use a new movement mode.
+	 *
+	 * @param movementMode the movement mode
+	 * @param ticks        the number of ticks run before the movement mode
+	 */
+	void onMovementModeChange(@Nonnull MovementMode movementMode, long ticks);
+
+}
@@ -25,7 +25,6 @@
 package org.tiwindetea.magicmetro.model;
 
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
-import org.tiwindetea.magicmetro.global.TimeManager;
 import org.tiwindetea.magicmetro.model.lines.Connection;
 import org.tiwindetea.magicmetro.view.StationView;
 
@@ -90,10 +89,10 @@ public class Station {
 			this.passengers.add(passenger);
 			this.view.addPassenger(passenger.getWantedStation());
 			if(this.passengers.size() > this.maxCapacity && !this.warn) {
-				this.view.warn();
 				this.warn = true;
-				this.warnStart = TimeManager.getInstance().getTimeAsMillis();
+				this.warnStart = this.stationManager.getTime();
 				this.warnEnd = this.warnStart + STATION_FULL_DELAY;
+				this.view.warn(this.warnStart, this.warnEnd);
 				this.stationManager.addWarnedStation(this);
 			}
 		}
@@ -199,15 +198,6 @@ public class Station {
 		return this.warnEnd;
 	}
 
-	/**
-	 * Sets warn value.
-	 *
-	 * @param percentage the percentage
-	 */
-	public void setWarnValue(double percentage) {
-		this.view.setWarnValue(percentage);
-	}
-
 	/**
 	 * Gets passengers.
 	 *
@@ -46,4 +46,11 @@ public interface StationManager {
 	 */
 	void removeWarnedStation(Station station);
 
+	/**
+	 * Gets the time of the game, used to date the warnings.
+	 *
+	 * @return the time as millis
+	 */
+	long getTime();
+
 }
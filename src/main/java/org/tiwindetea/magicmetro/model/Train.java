@@ -25,21 +25,20 @@
 package org.tiwindetea.magicmetro.model;
 
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
-import org.arakhne.afc.math.geometry.d2.d.Vector2d;
 import org.tiwindetea.magicmetro.model.lines.Connection;
 import org.tiwindetea.magicmetro.model.lines.Line;
 import org.tiwindetea.magicmetro.model.lines.Section;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
 import org.tiwindetea.magicmetro.view.TrainView;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * A train, move by following connections and subsections of a line.<p>
- * Exchange passenger with stations depending on the passenger path.
+ * Exchange passenger with stations depending on the passenger route.
  *
  * @author Maxime PINARD
  * @since 0.1
@@ -49,16 +48,18 @@ public class Train {
 	public final int gameId;
 
 	private static final int CAPACITY = 6;
-	private static final int PASSENGER_MOVE_DELAY = 20; // TODO: choose a real value
+	public static final int PASSENGER_MOVE_DELAY = 20; // TODO: choose a real value
 
 	private final double maxSpeed;
 	private final double acceleration;
+	private final int accelerationTicks; // number of ticks with a speed lower than the max speed after a departure
 	private double speed;
 	private Point2d position;
 	private double rotation;
 
 	private List<PassengerCar> passengerCars = new ArrayList<>();
 	private final TrainView view;
+	private final TrainManager trainManager;
 	private final List<Passenger> passengers = new ArrayList<>(CAPACITY);
 
 	private final TrainState movingState = new MovingState();
@@ -66,9 +67,11 @@ public class Train {
 	private TrainState currentState = this.movingState;
 
 	private Line line;
+	private RoutingTable routingTable;
 
 	private Connection lastConnection;
 	private Connection nextConnection;
+	private int startsNumber = 0;
 
 	/**
 	 * Instantiates a new Train.
@@ -76,12 +79,15 @@ public class Train {
 	 * @param maxSpeed     the max speed
 	 * @param acceleration the acceleration
 	 * @param view         the view
+	 * @param trainManager the train manager
 	 */
-	public Train(double maxSpeed, double acceleration, TrainView view) {
+	public Train(double maxSpeed, double acceleration, TrainView view, @Nonnull TrainManager trainManager) {
 		this.gameId = view.getGameId();
 		this.maxSpeed = maxSpeed;
 		this.acceleration = acceleration;
+		this.accelerationTicks = Math.max((int) Math.ceil(maxSpeed / acceleration) - 1, 0);
 		this.view = view;
+		this.trainManager = trainManager;
 		this.view.setVisible(false);
 	}
 
@@ -124,7 +130,6 @@ public class Train {
 
 	private void setPosition(Point2d position) {
 		this.position = position;
-		this.view.setPosition(this.position);
 	}
 
 	/**
@@ -141,6 +146,7 @@ public class Train {
 		this.setPosition(firstConnection.getPosition());
 		this.currentState = this.movingState;
 		this.currentState.init();
+		++this.startsNumber;
 		this.view.setVisible(true);
 	}
 
@@ -160,6 +166,7 @@ public class Train {
 		this.setPosition(section.getMiddleConnection().getPosition());
 		this.currentState = this.movingState;
 		this.currentState.init();
+		++this.startsNumber;
 		this.view.setVisible(true);
 	}
 
@@ -209,24 +216,171 @@ public class Train {
 		return false;
 	}
 
-	private void move(Vector2d move) {
-		this.position.add(move);
-		this.view.setPosition(this.position);
-	}
-
 	private void setRotation(double rotation) {
 		this.rotation = rotation;
-		this.view.setRotation(this.rotation);
 	}
 
 	/**
 	 * Function called by the game loop to make the train live.<p>
 	 * The train will move and exchange passengers with station on it way.
+	 *
+	 * @param routingTable the routing table giving the passengers routes
 	 */
-	public synchronized void live() {
+	public synchronized void live(@Nonnull RoutingTable routingTable) {
+		this.routingTable = routingTable;
 		this.currentState.live();
 	}
 
+	/**
+	 * Check if the train is stopped at a station, the next call to {@link #live(RoutingTable)} can exchange
+	 * passengers. Otherwise the train is moving and the next call only reads its line.
+	 *
+	 * @return true if the train is at a station, false otherwise
+	 */
+	synchronized boolean isAtStation() {
+		return this.currentState == this.atStationState;
+	}
+
+	/**
+	 * Gets the number of next ticks during which the train would only move on its section or wait at a station,
+	 * without reaching a connection nor exchanging passengers. These ticks can be skipped with {@link #skip(int)}
+	 * instead of calling {@link #live(RoutingTable)}.
+	 *
+	 * @return the number of idle ticks
+	 */
+	synchronized int getIdleTicks() {
+		return this.currentState.getIdleTicks();
+	}
+
+	/**
+	 * Skip idle ticks, the train position is computed again only when observed.
+	 *
+	 * @param ticks the number of ticks, at most the number of idle ticks
+	 * @see #getIdleTicks()
+	 */
+	synchronized void skip(int ticks) {
+		this.currentState.skip(ticks);
+	}
+
+	/**
+	 * Gets the number of times the train was started, the idle ticks of a train are no longer valid once it is
+	 * started again.
+	 *
+	 * @return the number of starts
+	 */
+	synchronized int getStartsNumber() {
+		return this.startsNumber;
+	}
+
+	/**
+	 * Update the position of the train after skipped ticks.<p>
+	 * The view doesn't need it, it interpolates the position from the movement given at the departure.
+	 */
+	synchronized void updatePosition() {
+		this.currentState.updatePosition();
+	}
+
+	/**
+	 * Gets position.
+	 *
+	 * @return the position, null if the train was never started
+	 */
+	@Nullable
+	public synchronized Point2d getPosition() {
+		if(this.position == null) {
+			return null;
+		}
+		updatePosition();
+		return new Point2d(this.position);
+	}
+
+	/**
+	 * Gets the speed of the train after a number of ticks since a departure, the train accelerates each tick until
+	 * its max speed.
+	 *
+	 * @param ticks the number of ticks since the departure
+	 * @return the speed
+	 */
+	private double getSpeed(int ticks) {
+		return Math.min(ticks * this.acceleration, this.maxSpeed);
+	}
+
+	/**
+	 * Gets the distance covered by the train after a number of ticks since a departure.
+	 *
+	 * @param ticks the number of ticks since the departure
+	 * @return the distance
+	 */
+	private double getDistance(int ticks) {
+		if(ticks <= this.accelerationTicks) {
+			return this.acceleration * ticks * (ticks + 1) / 2;
+		}
+		return this.acceleration * this.accelerationTicks * (this.accelerationTicks + 1) / 2
+		  + (ticks - this.accelerationTicks) * this.maxSpeed;
+	}
+
+	/**
+	 * Gets the number of ticks needed by the train to cover a distance since a departure.
+	 *
+	 * @param distance the distance
+	 * @return the number of ticks, at least 1
+	 */
+	private int getArrivalTicks(double distance) {
+		double accelerationDistance = getDistance(this.accelerationTicks);
+		int ticks;
+		if(distance <= accelerationDistance) {
+			ticks = (int) Math.ceil((Math.sqrt(1 + 8 * distance / this.acceleration) - 1) / 2);
+		}
+		else {
+			ticks = this.accelerationTicks + (int) Math.ceil((distance - accelerationDistance) / this.maxSpeed);
+		}
+		// rounding errors
+		ticks = Math.max(ticks, 1);
+		while(getDistance(ticks) < distance) {
+			++ticks;
+		}
+		while(ticks > 1 && getDistance(ticks - 1) >= distance) {
+			--ticks;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Update the route of a passenger in the train stopped at a station, if the passenger reached the next node of
+	 * his route or if his route comes from an old routing table.
+	 *
+	 * @param passenger the passenger
+	 * @param station   the station
+	 * @return true if the passenger have to leave the train at the station, false otherwise
+	 */
+	private boolean updateRouteInTrain(@Nonnull Passenger passenger, @Nonnull Station station) {
+		int platformNode = this.routingTable.getGraph().getPlatformNode(station, this.line);
+		if(platformNode < 0) {
+			return false;
+		}
+		if(passenger.getRouteVersion() != this.routingTable.getVersion() || passenger.getNextNode() == platformNode) {
+			passenger.setRoute(this.routingTable.getVersion(),
+			  this.routingTable.getNextNode(platformNode, passenger.getWantedStation().ordinal()));
+		}
+		return passenger.getNextNode() >= 0 && passenger.getNextNode() == this.routingTable.getGraph().getNode(station);
+	}
+
+	/**
+	 * Update the route of a passenger waiting in a station if his route comes from an old routing table.
+	 *
+	 * @param passenger the passenger
+	 * @param station   the station
+	 * @return true if the passenger have to take the train, false otherwise
+	 */
+	private boolean updateRouteInStation(@Nonnull Passenger passenger, @Nonnull Station station) {
+		if(passenger.getRouteVersion() != this.routingTable.getVersion()) {
+			passenger.setRoute(this.routingTable.getVersion(),
+			  this.routingTable.getNextNode(station, passenger.getWantedStation()));
+		}
+		return passenger.getNextNode() >= 0
+		  && passenger.getNextNode() == this.routingTable.getGraph().getPlatformNode(station, this.line);
+	}
+
 	private interface TrainState {
 
 		/**
@@ -239,66 +393,106 @@ public class Train {
 		 */
 		void live();
 
+		/**
+		 * Gets the number of next calls to {@link #live()} that would only move the train or wait, without reaching
+		 * a connection nor exchanging passengers.
+		 *
+		 * @return the number of idle ticks
+		 */
+		int getIdleTicks();
+
+		/**
+		 * Skip idle ticks, the position is updated by {@link #updatePosition()}.
+		 *
+		 * @param ticks the number of ticks, at most the number of idle ticks
+		 */
+		void skip(int ticks);
+
+		/**
+		 * Update the position of the train after skipped ticks.
+		 */
+		void updatePosition();
+
 	}
 
 	private class MovingState implements TrainState {
 
-		private double angleToNextConnection;
+		private Point2d origin;
+		private double cos;
+		private double sin;
+		private int ticks; // ticks since the departure from the last connection
+		private int arrivalTicks; // ticks from the last connection to the next connection
 
 		@Override
 		public synchronized void init() {
-			this.angleToNextConnection = Math.atan2(
-			  Train.this.nextConnection.getPosition().getY() - Train.this.position.getY(),
-			  Train.this.nextConnection.getPosition().getX() - Train.this.position.getX()
-			);
-			setRotation(Math.toDegrees(this.angleToNextConnection));
-
+			this.origin = new Point2d(Train.this.position);
+			double dx = Train.this.nextConnection.getPosition().getX() - this.origin.getX();
+			double dy = Train.this.nextConnection.getPosition().getY() - this.origin.getY();
+			double angleToNextConnection = Math.atan2(dy, dx);
+			setRotation(Math.toDegrees(angleToNextConnection));
+			this.cos = Math.cos(angleToNextConnection);
+			this.sin = Math.sin(angleToNextConnection);
+
+			this.ticks = 0;
+			this.arrivalTicks = getArrivalTicks(Math.sqrt(dx * dx + dy * dy));
 			Train.this.speed = 0;
+
+			long departureTime = Train.this.trainManager.getTime();
+			Train.this.view.setMovement(this.origin,
+			  departureTime,
+			  new Point2d(Train.this.nextConnection.getPosition()),
+			  departureTime + (long) this.arrivalTicks * Simulation.TICK_MILLIS);
 		}
 
 		@Override
 		public synchronized void live() {
-			Train.this.speed = Math.min(Train.this.speed += Train.this.acceleration, Train.this.maxSpeed);
-
-			double dx = Train.this.speed * Math.cos(this.angleToNextConnection);
-			double dy = Train.this.speed * Math.sin(this.angleToNextConnection);
-
-			Point2d oldPosition = new Point2d(Train.this.position);
-			move(new Vector2d(dx, dy));
-
-			// if train was before connection and is now at or after connection
-			if(((Math.min(oldPosition.getX(), Train.this.position.getX())
-			  < Train.this.nextConnection.getPosition().getX())
-			  && (Math.max(oldPosition.getX(), Train.this.position.getX())
-			  >= Train.this.nextConnection.getPosition().getX()))
-			  || ((Math.min(oldPosition.getY(), Train.this.position.getY())
-			  < Train.this.nextConnection.getPosition().getY())
-			  && (Math.max(oldPosition.getY(), Train.this.position.getY())
-			  >= Train.this.nextConnection.getPosition().getY()))
-			  ) {
-
-				// put next connection in nextConnection (and nextConnection old value in lastConnection)
-				Connection leftConnection = Train.this.nextConnection.getLeftSubSection()
-				  .getOther(Train.this.nextConnection);
-				Connection rightConnection = Train.this.nextConnection.getRightSubSection()
-				  .getOther(Train.this.nextConnection);
-				Connection tmpConnection = Train.this.nextConnection;
-				if(leftConnection != Train.this.lastConnection) {
-					Train.this.nextConnection = leftConnection;
-				}
-				else {
-					Train.this.nextConnection = rightConnection;
-				}
-				Train.this.lastConnection = tmpConnection;
+			++this.ticks;
+			if(this.ticks < this.arrivalTicks) {
+				updatePosition();
+				return;
+			}
 
-				Train.this.currentState.init();
+			// at next connection
+			Train.this.speed = getSpeed(this.ticks);
+			setPosition(Train.this.nextConnection.getPosition());
+
+			// put next connection in nextConnection (and nextConnection old value in lastConnection)
+			Connection leftConnection = Train.this.nextConnection.getLeftSubSection()
+			  .getOther(Train.this.nextConnection);
+			Connection rightConnection = Train.this.nextConnection.getRightSubSection()
+			  .getOther(Train.this.nextConnection);
+			Connection tmpConnection = Train.this.nextConnection;
+			if(leftConnection != Train.this.lastConnection) {
+				Train.this.nextConnection = leftConnection;
+			}
+			else {
+				Train.this.nextConnection = rightConnection;
+			}
+			Train.this.lastConnection = tmpConnection;
 
-				// if at station, change state
-				if(Train.this.lastConnection.isInStation()) {
-					Train.this.currentState = Train.this.atStationState;
-					Train.this.currentState.init();
-				}
+			// if at station, change state, the train departs when the passengers are exchanged
+			if(Train.this.lastConnection.isInStation()) {
+				Train.this.currentState = Train.this.atStationState;
 			}
+			Train.this.currentState.init();
+		}
+
+		@Override
+		public synchronized int getIdleTicks() {
+			return Math.max(this.arrivalTicks - this.ticks - 1, 0);
+		}
+
+		@Override
+		public synchronized void skip(int ticks) {
+			this.ticks += ticks;
+		}
+
+		@Override
+		public synchronized void updatePosition() {
+			double distance = getDistance(this.ticks);
+			Train.this.speed = getSpeed(this.ticks);
+			setPosition(new Point2d(this.origin.getX() + distance * this.cos,
+			  this.origin.getY() + distance * this.sin));
 		}
 	}
 
@@ -313,6 +507,7 @@ public class Train {
 		public synchronized void init() {
 			this.delayCounter = 0;
 			this.actualStation = Train.this.lastConnection.getStation();
+			Train.this.speed = 0;
 			this.finishedOut = false;
 			this.finishedIn = false;
 		}
@@ -323,24 +518,14 @@ public class Train {
 				if(!this.finishedOut) {
 					this.finishedOut = true;
 					for(Passenger passenger : Train.this.passengers) {
-						Station station = null;
-						Stack<Station> passengerPath = passenger.getPath();
-						if(passengerPath != null) {
-							if(!passengerPath.isEmpty()) { // for stack dark magic purpose
-								station = passengerPath.peek();
-							}
-							if(station == this.actualStation) {
-								passenger.getPath().pop();
-								if(!passengerPath.isEmpty()) { // for stack dark magic purpose
-									station = passengerPath.peek();
-								}
-								if(!Train.this.line.contains(station) || station == this.actualStation) {
-									removePassenger(passenger);
-									this.actualStation.addPassenger(passenger);
-									this.finishedOut = false;
-									break;
-								}
-							}
+						if(updateRouteInTrain(passenger, this.actualStation)) {
+							removePassenger(passenger);
+							// the passenger is now on the station node
+							passenger.setRoute(Train.this.routingTable.getVersion(),
+							  Train.this.routingTable.getNextNode(this.actualStation, passenger.getWantedStation()));
+							this.actualStation.addPassenger(passenger);
+							this.finishedOut = false;
+							break;
 						}
 					}
 				}
@@ -348,18 +533,16 @@ public class Train {
 					if(!this.finishedIn) {
 						this.finishedIn = true;
 						for(Passenger passenger : this.actualStation.getPassengers()) {
-							Station station = null;
-							Stack<Station> passengerPath = passenger.getPath();
-							if(passengerPath != null) {
-								if(!passengerPath.isEmpty()) { // for stack dark magic purpose
-									station = passengerPath.peek();
-								}
-								if(Train.this.line.contains(station)) {
-									if(Train.this.addPassenger(passenger)) {
-										this.actualStation.removePassenger(passenger);
-										this.finishedIn = false;
-										break;
-									}
+							if(updateRouteInStation(passenger, this.actualStation)) {
+								if(Train.this.addPassenger(passenger)) {
+									// the passenger is now on the platform node
+									passenger.setRoute(Train.this.routingTable.getVersion(),
+									  Train.this.routingTable.getNextNode(this.actualStation,
+									    Train.this.line,
+									    passenger.getWantedStation()));
+									this.actualStation.removePassenger(passenger);
+									this.finishedIn = false;
+									break;
 								}
 							}
 						}
@@ -376,6 +559,21 @@ public class Train {
 				Train.this.currentState.init();
 			}
 		}
+
+		@Override
+		public synchronized int getIdleTicks() {
+			return (PASSENGER_MOVE_DELAY - this.delayCounter) % PASSENGER_MOVE_DELAY;
+		}
+
+		@Override
+		public synchronized void skip(int ticks) {
+			this.delayCounter = (this.delayCounter + ticks) % PASSENGER_MOVE_DELAY;
+		}
+
+		@Override
+		public void updatePosition() {
+			// the train doesn't move
+		}
 	}
 
 }
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model;
+
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+
+import javax.annotation.Nonnull;
+import java.util.PriorityQueue;
+
+/**
+ * Schedule the trains of the {@link MovementMode#EVENTS} movement mode.<p>
+ * Each train is kept in a priority queue with the next tick where it reaches a connection or exchanges passengers,
+ * the idle ticks before are skipped in one go.
+ *
+ * @author Maxime PINARD
+ * @see Simulation
+ * @since 0.1
+ */
+class TrainScheduler {
+
+	private static class ScheduledTrain {
+
+		final Train train;
+		final int startsNumber;
+		long tick; // the train is up to date at this tick
+		long nextTick; // the ticks between tick and nextTick are idle
+
+		ScheduledTrain(Train train, long tick, long nextTick) {
+			this.train = train;
+			this.startsNumber = train.getStartsNumber();
+			this.tick = tick;
+			this.nextTick = nextTick;
+		}
+	}
+
+	private final PriorityQueue<ScheduledTrain> scheduledTrains = new PriorityQueue<>((o1, o2) ->
+	  Long.compare(o1.nextTick, o2.nextTick));
+	private Train[] trains = null; // the trains of the queue, null if the queue is empty
+
+	/**
+	 * Make the trains live at a tick, only the trains that are not idle at this tick are called.
+	 *
+	 * @param trains       the trains of the map, a new array each time the trains change
+	 * @param routingTable the routing table
+	 * @param tick         the tick, following the tick of the previous call
+	 */
+	void live(@Nonnull Train[] trains, @Nonnull RoutingTable routingTable, long tick) {
+		if(trains != this.trains) {
+			clear(tick - 1);
+			this.trains = trains;
+			for(Train train : trains) {
+				this.scheduledTrains.add(new ScheduledTrain(train, tick - 1, tick));
+			}
+		}
+
+		ScheduledTrain scheduledTrain = this.scheduledTrains.peek();
+		while((scheduledTrain != null) && (scheduledTrain.nextTick <= tick)) {
+			this.scheduledTrains.poll();
+			scheduledTrain.train.skip((int) (tick - 1 - scheduledTrain.tick));
+			scheduledTrain.train.live(routingTable);
+			scheduledTrain.tick = tick;
+			scheduledTrain.nextTick = tick + 1 + scheduledTrain.train.getIdleTicks();
+			this.scheduledTrains.add(scheduledTrain);
+			scheduledTrain = this.scheduledTrains.peek();
+		}
+	}
+
+	/**
+	 * Bring the trains up to date at a tick and update their positions.
+	 *
+	 * @param tick the tick, the last tick given to {@link #live(Train[], RoutingTable, long)}
+	 */
+	void updatePositions(long tick) {
+		for(ScheduledTrain scheduledTrain : this.scheduledTrains) {
+			// a train started again since its last call has a new state, with no ticks to skip
+			if(scheduledTrain.train.getStartsNumber() == scheduledTrain.startsNumber) {
+				scheduledTrain.train.skip((int) (tick - scheduledTrain.tick));
+				scheduledTrain.tick = tick;
+				scheduledTrain.train.updatePosition();
+			}
+		}
+	}
+
+	/**
+	 * Bring the trains up to date at a tick and empty the queue.
+	 *
+	 * @param tick the tick, the last tick given to {@link #live(Train[], RoutingTable, long)}
+	 */
+	void clear(long tick) {
+		updatePositions(tick);
+		this.scheduledTrains.clear();
+		this.trains = null;
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model;
+
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Movement phase of a tick, make moving trains live in parallel.<p>
+ * A moving train only reads the connections of its line and doesn't exchange passengers, so the moving trains
+ * are independent and the result doesn't depend on the order of the calls.
+ *
+ * @author Maxime PINARD
+ * @see Simulation
+ * @since 0.1
+ */
+class TrainsMovement extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int TRAINS_PER_TASK = 32;
+
+	private final Train[] trains;
+	private final int from;
+	private final int to;
+	private final RoutingTable routingTable;
+
+	/**
+	 * Instantiates a new TrainsMovement.
+	 *
+	 * @param trains       the trains, all in moving state
+	 * @param from         the index of the first train to move, inclusive
+	 * @param to           the index of the last train to move, exclusive
+	 * @param routingTable the routing table
+	 */
+	TrainsMovement(@Nonnull Train[] trains, int from, int to, @Nonnull RoutingTable routingTable) {
+		this.trains = trains;
+		this.from = from;
+		this.to = to;
+		this.routingTable = routingTable;
+	}
+
+	@Override
+	protected void compute() {
+		if(this.to - this.from <= TRAINS_PER_TASK) {
+			for(int i = this.from; i < this.to; ++i) {
+				this.trains[i].live(this.routingTable);
+			}
+		}
+		else {
+			int middle = (this.from + this.to) >>> 1;
+			invokeAll(new TrainsMovement(this.trains, this.from, middle, this.routingTable),
+			  new TrainsMovement(this.trains, middle, this.to, this.routingTable));
+		}
+	}
+
+}
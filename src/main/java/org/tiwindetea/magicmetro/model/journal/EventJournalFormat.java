@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary format of the event journal.<p>
+ * The header holds the map name, the seed of the simulation and the station scripts of the map, as the stations of
+ * a map may be random. Each record then holds its type, the ticks run since the previous record and the fields of
+ * its change: an event of the player, the version of a new routing table or a movement mode. The stations and
+ * lines are written as their ordinals plus one, 0 for an unknown element, the sections as the order of their first
+ * appearance in the journal.
+ * The integers are written as variable length quantities, 7 bits per byte.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+final class EventJournalFormat {
+
+	static final int MAGIC = 0x4D4D4A31; // "MMJ1"
+
+	static final int LINE_CREATION = 0;
+	static final int LINE_EXTENSION = 1;
+	static final int LINE_INNER_EXTENSION = 2;
+	static final int LINE_DECREASE = 3;
+	static final int TRAIN_INVENTORY_MOVE = 4;
+	static final int STATION_UPGRADE_INVENTORY_MOVE = 5;
+	static final int INVENTORY_ELEMENT_ADDITION = 6;
+	static final int ROUTING_TABLE = 7;
+	static final int MOVEMENT_MODE = 8;
+	static final int END = 9; // end of the recorded game, the ticks run before the game exit
+
+	private EventJournalFormat() {
+	}
+
+	/**
+	 * Write a positive integer as a variable length quantity.
+	 *
+	 * @param output the output
+	 * @param value  the value
+	 * @throws IOException if an I/O error occurs
+	 */
+	static void writeVarLong(DataOutput output, long value) throws IOException {
+		while((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+	/**
+	 * Read a positive integer written as a variable length quantity.
+	 *
+	 * @param input the input
+	 * @return the value
+	 * @throws IOException if an I/O error occurs
+	 */
+	static long readVarLong(DataInput input) throws IOException {
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed variable length quantity");
+	}
+
+}
@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.journal;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.global.GameContext;
+import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.InventoryElementAdditionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineCreationEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineDecreaseEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineExtensionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineInnerExtensionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.StationUpgradeInventoryMoveEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.TrainInventoryMoveEvent;
+import org.tiwindetea.magicmetro.global.scripts.ElementScript;
+import org.tiwindetea.magicmetro.global.scripts.LineScript;
+import org.tiwindetea.magicmetro.global.scripts.MapScript;
+import org.tiwindetea.magicmetro.global.scripts.PassengerCarScript;
+import org.tiwindetea.magicmetro.global.scripts.StationScript;
+import org.tiwindetea.magicmetro.global.scripts.StationUpgradeScript;
+import org.tiwindetea.magicmetro.global.scripts.TrainScript;
+import org.tiwindetea.magicmetro.global.scripts.TunnelScript;
+import org.tiwindetea.magicmetro.model.GameManager;
+import org.tiwindetea.magicmetro.model.MovementMode;
+import org.tiwindetea.magicmetro.model.Simulation;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.TrainType;
+import org.tiwindetea.magicmetro.view.ViewFactory;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event journal replay, replay a game recorded by an {@link EventJournalWriter} at maximum speed.<p>
+ * The game is simulated with the seed and stations of the recorded game, and the recorded changes are applied after
+ * the ticks run before them in the recorded game: the events of the player are fired and applied, and the routing
+ * tables, computed synchronously, are used from the same ticks. The element choices of the game are ignored, the
+ * chosen elements being replayed from the journal. The sections get new ids, the stations and lines are found from
+ * their ordinals.
+ *
+ * @author Maxime PINARD
+ * @see EventJournalFormat
+ * @since 0.1
+ */
+public class EventJournalReplay {
+
+	private final DataInputStream inputStream;
+	private final String mapName;
+	private final long seed;
+	private final List<StationScript> stationScripts = new ArrayList<>();
+	private final List<Integer> sectionsIds = new ArrayList<>(); // section ordinal to section id
+
+	private GameContext gameContext = null;
+	private JournalViewFactory viewFactory = null;
+	private int nextType; // type of the next record
+	private long nextTicks = 0; // ticks run before the next record
+
+	/**
+	 * Instantiates a new EventJournalReplay, read the header of the journal.
+	 *
+	 * @param inputStream the input stream of the journal
+	 * @throws IOException if the header could not be read
+	 */
+	public EventJournalReplay(@Nonnull InputStream inputStream) throws IOException {
+		this.inputStream = new DataInputStream(new BufferedInputStream(inputStream));
+		if(this.inputStream.readInt() != EventJournalFormat.MAGIC) {
+			throw new IOException("not an event journal");
+		}
+		this.mapName = this.inputStream.readUTF();
+		this.seed = this.inputStream.readLong();
+		long stationScriptsNumber = EventJournalFormat.readVarLong(this.inputStream);
+		for(long i = 0; i < stationScriptsNumber; ++i) {
+			Duration apparitionTime = Duration.ofMillis(EventJournalFormat.readVarLong(this.inputStream));
+			Point2d position = new Point2d(this.inputStream.readDouble(), this.inputStream.readDouble());
+			StationType type = StationType.values()[this.inputStream.readUnsignedByte()];
+			this.stationScripts.add(new StationScript(apparitionTime, position, type, this.inputStream.readDouble()));
+		}
+	}
+
+	/**
+	 * Gets the map name of the recorded game.
+	 *
+	 * @return the map name
+	 */
+	public String getMapName() {
+		return this.mapName;
+	}
+
+	/**
+	 * Gets the seed of the recorded game.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Create a copy of a map script with the stations of the recorded game.
+	 *
+	 * @param mapScript the map script of the recorded game
+	 * @return the map script copy
+	 * @throws IllegalStateException if the map script is not the map of the recorded game
+	 */
+	public MapScript createMapScript(@Nonnull MapScript mapScript) {
+		if(!mapScript.mapName.equals(this.mapName)) {
+			throw new IllegalStateException("the journal records a game on the map " + this.mapName);
+		}
+		MapScript copy = new MapScript(mapScript);
+		copy.stationScripts.clear();
+		copy.stationScripts.addAll(this.stationScripts);
+		return copy;
+	}
+
+	/**
+	 * Replay the recorded game until its end. The game is not exited, so its state can be read.
+	 *
+	 * @param gameContext the game context of the replay
+	 * @param viewFactory the view factory of the replay
+	 * @param mapScript   the map script of the recorded game, its stations are replaced by the recorded ones
+	 * @return the game manager of the replay
+	 * @throws IOException           if the journal could not be read
+	 * @throws IllegalStateException if the journal was already replayed or the map script is not the map of the
+	 *                               recorded game
+	 */
+	public GameManager replay(@Nonnull GameContext gameContext,
+	                          @Nonnull ViewFactory viewFactory,
+	                          @Nonnull MapScript mapScript) throws IOException {
+		if(this.gameContext != null) {
+			throw new IllegalStateException("the journal was already replayed");
+		}
+		this.gameContext = gameContext;
+		this.viewFactory = new JournalViewFactory(viewFactory, false);
+		GameManager gameManager = new GameManager(this.gameContext,
+		  this.viewFactory,
+		  createMapScript(mapScript),
+		  this.seed,
+		  null,
+		  false);
+		// the recorded routing tables are computed before the ticks using them
+		gameManager.getGameMap().setSynchronousRouting(true);
+		Simulation simulation = gameManager.getSimulation();
+
+		readRecordStart();
+		while(!simulation.isEnded()) {
+			while((this.nextType != EventJournalFormat.END) && (this.nextTicks <= simulation.getTicks())) {
+				applyRecord(simulation);
+				readRecordStart();
+			}
+			if((this.nextType == EventJournalFormat.END) && (this.nextTicks <= simulation.getTicks())) {
+				break;
+			}
+			simulation.tick();
+		}
+		return gameManager;
+	}
+
+	private void readRecordStart() throws IOException {
+		int type = this.inputStream.read();
+		if(type < 0) {
+			// journal of a game that did not exit, it ends with its last record
+			this.nextType = EventJournalFormat.END;
+			return;
+		}
+		this.nextType = type;
+		this.nextTicks += EventJournalFormat.readVarLong(this.inputStream);
+	}
+
+	private void applyRecord(Simulation simulation) throws IOException {
+		EventDispatcher eventDispatcher = this.gameContext.getEventDispatcher();
+		int lineId;
+		int sectionId;
+		switch(this.nextType) {
+		case EventJournalFormat.LINE_CREATION:
+			lineId = readLine();
+			sectionId = readSection();
+			eventDispatcher.fire(new LineCreationEvent(lineId, sectionId, readStation(), readStation(), readPosition()));
+			break;
+		case EventJournalFormat.LINE_EXTENSION:
+			lineId = readLine();
+			sectionId = readSection();
+			eventDispatcher.fire(new LineExtensionEvent(lineId, sectionId, readStation(), readStation(), readPosition()));
+			break;
+		case EventJournalFormat.LINE_INNER_EXTENSION:
+			lineId = readLine();
+			sectionId = readSection();
+			int newLeftSectionId = readSection();
+			int newRightSectionId = readSection();
+			eventDispatcher.fire(new LineInnerExtensionEvent(lineId,
+			  sectionId,
+			  newLeftSectionId,
+			  newRightSectionId,
+			  readStation(),
+			  readStation(),
+			  readStation(),
+			  readPosition(),
+			  readPosition()));
+			break;
+		case EventJournalFormat.LINE_DECREASE:
+			lineId = readLine();
+			sectionId = readSection();
+			eventDispatcher.fire(new LineDecreaseEvent(lineId, sectionId, readStation()));
+			break;
+		case EventJournalFormat.TRAIN_INVENTORY_MOVE:
+			lineId = readLine();
+			sectionId = readSection();
+			eventDispatcher.fire(new TrainInventoryMoveEvent(lineId, sectionId, readPosition()));
+			break;
+		case EventJournalFormat.STATION_UPGRADE_INVENTORY_MOVE:
+			eventDispatcher.fire(new StationUpgradeInventoryMoveEvent(readStation()));
+			break;
+		case EventJournalFormat.INVENTORY_ELEMENT_ADDITION:
+			ElementScript.ElementType type = ElementScript.ElementType.values()[this.inputStream.readUnsignedByte()];
+			int number = (int) EventJournalFormat.readVarLong(this.inputStream);
+			int parameter = (int) EventJournalFormat.readVarLong(this.inputStream);
+			eventDispatcher.fire(new InventoryElementAdditionEvent(createElementScript(type, parameter), number));
+			break;
+		case EventJournalFormat.ROUTING_TABLE:
+			simulation.setMaxRoutingVersion(EventJournalFormat.readVarLong(this.inputStream));
+			return;
+		case EventJournalFormat.MOVEMENT_MODE:
+			simulation.setMovementMode(MovementMode.values()[this.inputStream.readUnsignedByte()]);
+			return;
+		default:
+			throw new IOException("unknown record type " + this.nextType);
+		}
+		// the event is applied now, as in the recorded game
+		simulation.applyPlayerEvents();
+	}
+
+	private static ElementScript createElementScript(ElementScript.ElementType type, int parameter) {
+		switch(type) {
+		case TRAIN:
+			return new TrainScript(TrainType.values()[parameter]);
+		case STATION_UPGRADE:
+			return new StationUpgradeScript(parameter);
+		case TUNNEL:
+			return new TunnelScript();
+		case LINE:
+			return new LineScript();
+		case PASSENGER_CAR:
+			return new PassengerCarScript();
+		default:
+			throw new IllegalStateException("unknown element type " + type);
+		}
+	}
+
+	private int readStation() throws IOException {
+		int ordinal = (int) EventJournalFormat.readVarLong(this.inputStream) - 1;
+		return (ordinal < 0) ? -1 : this.viewFactory.getStationId(ordinal);
+	}
+
+	private int readLine() throws IOException {
+		int ordinal = (int) EventJournalFormat.readVarLong(this.inputStream) - 1;
+		return (ordinal < 0) ? -1 : this.viewFactory.getLineId(ordinal);
+	}
+
+	private int readSection() throws IOException {
+		int ordinal = (int) EventJournalFormat.readVarLong(this.inputStream);
+		while(this.sectionsIds.size() <= ordinal) {
+			this.sectionsIds.add(this.gameContext.getIdGenerator().nextId());
+		}
+		return this.sectionsIds.get(ordinal);
+	}
+
+	private Point2d readPosition() throws IOException {
+		return new Point2d(this.inputStream.readDouble(), this.inputStream.readDouble());
+	}
+
+}
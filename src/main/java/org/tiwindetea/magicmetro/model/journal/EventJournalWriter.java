@@ -0,0 +1,369 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.journal;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.global.eventdispatcher.Event;
+import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
+import org.tiwindetea.magicmetro.global.eventdispatcher.EventListener;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.GameExitEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.InventoryElementAdditionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineCreationEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineDecreaseEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineExtensionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.lineevents.LineInnerExtensionEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.StationUpgradeInventoryMoveEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.moveevents.TrainInventoryMoveEvent;
+import org.tiwindetea.magicmetro.global.scripts.MapScript;
+import org.tiwindetea.magicmetro.global.scripts.StationScript;
+import org.tiwindetea.magicmetro.global.scripts.StationUpgradeScript;
+import org.tiwindetea.magicmetro.global.scripts.TrainScript;
+import org.tiwindetea.magicmetro.model.GameManager;
+import org.tiwindetea.magicmetro.model.MovementMode;
+import org.tiwindetea.magicmetro.model.Simulation;
+import org.tiwindetea.magicmetro.model.SimulationListener;
+import org.tiwindetea.magicmetro.model.routing.RoutingTable;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event journal writer, record the actions of the player on a game in an append-only binary journal.<p>
+ * The journal listens the simulation of the game: the events of the player, the versions of the routing tables
+ * computed in the background and the movement modes are encoded with the ticks run before them, in the thread
+ * running the simulation, and written by a dedicated thread so the game never waits for the output. The journal is
+ * closed by the {@link GameExitEvent} of the game. A game is replayed exactly by {@link EventJournalReplay}, whether
+ * it was driven by the time of a graphical game or by the {@link org.tiwindetea.magicmetro.HeadlessRunner}.
+ *
+ * @author Maxime PINARD
+ * @see EventJournalFormat
+ * @since 0.1
+ */
+public class EventJournalWriter implements SimulationListener, AutoCloseable {
+
+	private final DataOutputStream outputStream;
+	private final JournalViewFactory viewFactory;
+	private final String mapName;
+	private final List<StationScript> stationScripts;
+	private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+	private final DataOutputStream recordOutput = new DataOutputStream(this.recordBuffer);
+	private final Map<Integer, Integer> sectionsOrdinals = new HashMap<>();
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private volatile IOException exception = null; // first exception of the writing thread
+
+	private EventDispatcher eventDispatcher = null;
+	private Simulation simulation = null;
+	private long lastTicks = 0;
+	private boolean closed = false;
+
+	private final EventListener<GameExitEvent> onGameExitEvent;
+
+	/**
+	 * Instantiates a new EventJournalWriter, must be created before the game as the stations of the map script are
+	 * recorded before the game starts to consume them. The game must be created with the seed, the view factory, a
+	 * copy of the map script and this journal as simulation listener.
+	 *
+	 * @param outputStream the output stream of the journal, closed with the journal
+	 * @param mapScript    the map script of the game
+	 * @param viewFactory  the view factory of the game, giving the ordinals of its stations and lines
+	 * @param seed         the seed of the simulation of the game
+	 */
+	public EventJournalWriter(@Nonnull OutputStream outputStream,
+	                          @Nonnull MapScript mapScript,
+	                          @Nonnull JournalViewFactory viewFactory,
+	                          long seed) {
+		this.outputStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+		this.viewFactory = viewFactory;
+		this.mapName = mapScript.mapName;
+		// the iteration order of the queue rebuilds the same queue, so the stations with the same apparition time
+		// appear in the same order
+		this.stationScripts = new ArrayList<>(mapScript.stationScripts);
+
+		try {
+			this.recordOutput.writeInt(EventJournalFormat.MAGIC);
+			this.recordOutput.writeUTF(this.mapName);
+			this.recordOutput.writeLong(seed);
+			EventJournalFormat.writeVarLong(this.recordOutput, this.stationScripts.size());
+			for(StationScript stationScript : this.stationScripts) {
+				EventJournalFormat.writeVarLong(this.recordOutput, stationScript.apparitionTime.toMillis());
+				this.recordOutput.writeDouble(stationScript.position.getX());
+				this.recordOutput.writeDouble(stationScript.position.getY());
+				this.recordOutput.writeByte(stationScript.type.ordinal());
+				this.recordOutput.writeDouble(stationScript.passengerWeight);
+			}
+		} catch(IOException e) {
+			// not thrown by a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+		flushRecord();
+
+		this.onGameExitEvent = new EventListener<GameExitEvent>() {
+			@Override
+			public void onEvent(GameExitEvent event) {
+				try {
+					EventJournalWriter.this.close();
+				} catch(IOException e) {
+					e.printStackTrace();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Record a game until its exit, the changes of its simulation are already recorded from its creation.
+	 *
+	 * @param gameManager the game manager of the game
+	 * @throws IllegalStateException if the journal already records a game or is closed
+	 */
+	public synchronized void record(@Nonnull GameManager gameManager) {
+		if(this.closed || (this.simulation != null)) {
+			throw new IllegalStateException("the journal already recorded a game");
+		}
+		this.simulation = gameManager.getSimulation();
+		this.eventDispatcher = gameManager.getGameContext().getEventDispatcher();
+		this.eventDispatcher.addListener(GameExitEvent.class, this.onGameExitEvent);
+	}
+
+	@Override
+	public void onPlayerEvent(@Nonnull Event event, long ticks) {
+		write(event, ticks);
+	}
+
+	@Override
+	public synchronized void onRoutingTableChange(@Nonnull RoutingTable routingTable, long ticks) {
+		if(this.closed) {
+			return;
+		}
+		try {
+			writeRecordStart(EventJournalFormat.ROUTING_TABLE, ticks);
+			EventJournalFormat.writeVarLong(this.recordOutput, routingTable.getVersion());
+		} catch(IOException e) {
+			// not thrown by a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+		flushRecord();
+	}
+
+	@Override
+	public synchronized void onMovementModeChange(@Nonnull MovementMode movementMode, long ticks) {
+		if(this.closed) {
+			return;
+		}
+		try {
+			writeRecordStart(EventJournalFormat.MOVEMENT_MODE, ticks);
+			this.recordOutput.writeByte(movementMode.ordinal());
+		} catch(IOException e) {
+			// not thrown by a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+		flushRecord();
+	}
+
+	private synchronized void write(Event event, long ticks) {
+		if(this.closed) {
+			return;
+		}
+		try {
+			if(event instanceof LineCreationEvent) {
+				LineCreationEvent lineCreationEvent = (LineCreationEvent) event;
+				writeRecordStart(EventJournalFormat.LINE_CREATION, ticks);
+				writeLine(lineCreationEvent.lineId);
+				writeSection(lineCreationEvent.newSectionId);
+				writeStation(lineCreationEvent.fromStationId);
+				writeStation(lineCreationEvent.toStationId);
+				writePosition(lineCreationEvent.middleConnectionPosition);
+			}
+			else if(event instanceof LineExtensionEvent) {
+				LineExtensionEvent lineExtensionEvent = (LineExtensionEvent) event;
+				writeRecordStart(EventJournalFormat.LINE_EXTENSION, ticks);
+				writeLine(lineExtensionEvent.lineId);
+				writeSection(lineExtensionEvent.newSectionId);
+				writeStation(lineExtensionEvent.fromStationId);
+				writeStation(lineExtensionEvent.toStationId);
+				writePosition(lineExtensionEvent.middleConnectionPosition);
+			}
+			else if(event instanceof LineInnerExtensionEvent) {
+				LineInnerExtensionEvent lineInnerExtensionEvent = (LineInnerExtensionEvent) event;
+				writeRecordStart(EventJournalFormat.LINE_INNER_EXTENSION, ticks);
+				writeLine(lineInnerExtensionEvent.lineId);
+				writeSection(lineInnerExtensionEvent.oldSectionId);
+				writeSection(lineInnerExtensionEvent.newLeftSectionId);
+				writeSection(lineInnerExtensionEvent.newRightSectionId);
+				writeStation(lineInnerExtensionEvent.fromStationId);
+				writeStation(lineInnerExtensionEvent.addedStationId);
+				writeStation(lineInnerExtensionEvent.toStationId);
+				writePosition(lineInnerExtensionEvent.middleLeftConnectionPosition);
+				writePosition(lineInnerExtensionEvent.middleRightConnectionPosition);
+			}
+			else if(event instanceof LineDecreaseEvent) {
+				LineDecreaseEvent lineDecreaseEvent = (LineDecreaseEvent) event;
+				writeRecordStart(EventJournalFormat.LINE_DECREASE, ticks);
+				writeLine(lineDecreaseEvent.lineId);
+				writeSection(lineDecreaseEvent.oldSectionId);
+				writeStation(lineDecreaseEvent.oldStationId);
+			}
+			else if(event instanceof TrainInventoryMoveEvent) {
+				TrainInventoryMoveEvent trainInventoryMoveEvent = (TrainInventoryMoveEvent) event;
+				writeRecordStart(EventJournalFormat.TRAIN_INVENTORY_MOVE, ticks);
+				writeLine(trainInventoryMoveEvent.lineId);
+				writeSection(trainInventoryMoveEvent.sectionId);
+				writePosition(trainInventoryMoveEvent.position);
+			}
+			else if(event instanceof StationUpgradeInventoryMoveEvent) {
+				writeRecordStart(EventJournalFormat.STATION_UPGRADE_INVENTORY_MOVE, ticks);
+				writeStation(((StationUpgradeInventoryMoveEvent) event).stationId);
+			}
+			else if(event instanceof InventoryElementAdditionEvent) {
+				InventoryElementAdditionEvent inventoryElementAdditionEvent = (InventoryElementAdditionEvent) event;
+				writeRecordStart(EventJournalFormat.INVENTORY_ELEMENT_ADDITION, ticks);
+				this.recordOutput.writeByte(inventoryElementAdditionEvent.elementScript.type.ordinal());
+				EventJournalFormat.writeVarLong(this.recordOutput, inventoryElementAdditionEvent.number);
+				long parameter = 0;
+				if(inventoryElementAdditionEvent.elementScript instanceof TrainScript) {
+					parameter = ((TrainScript) inventoryElementAdditionEvent.elementScript).type.ordinal();
+				}
+				else if(inventoryElementAdditionEvent.elementScript instanceof StationUpgradeScript) {
+					parameter = ((StationUpgradeScript) inventoryElementAdditionEvent.elementScript).capacityBonus;
+				}
+				EventJournalFormat.writeVarLong(this.recordOutput, parameter);
+			}
+			else {
+				return;
+			}
+		} catch(IOException e) {
+			// not thrown by a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+		flushRecord();
+	}
+
+	private void writeRecordStart(int type, long ticks) throws IOException {
+		this.recordOutput.writeByte(type);
+		EventJournalFormat.writeVarLong(this.recordOutput, ticks - this.lastTicks);
+		this.lastTicks = ticks;
+	}
+
+	private void writeStation(int stationId) throws IOException {
+		EventJournalFormat.writeVarLong(this.recordOutput, this.viewFactory.getStationOrdinal(stationId) + 1);
+	}
+
+	private void writeLine(int lineId) throws IOException {
+		EventJournalFormat.writeVarLong(this.recordOutput, this.viewFactory.getLineOrdinal(lineId) + 1);
+	}
+
+	private void writeSection(int sectionId) throws IOException {
+		Integer ordinal = this.sectionsOrdinals.get(sectionId);
+		if(ordinal == null) {
+			ordinal = this.sectionsOrdinals.size();
+			this.sectionsOrdinals.put(sectionId, ordinal);
+		}
+		EventJournalFormat.writeVarLong(this.recordOutput, ordinal);
+	}
+
+	private void writePosition(Point2d position) throws IOException {
+		this.recordOutput.writeDouble(position.getX());
+		this.recordOutput.writeDouble(position.getY());
+	}
+
+	private void flushRecord() {
+		byte[] record = this.recordBuffer.toByteArray();
+		this.recordBuffer.reset();
+		this.executorService.execute(() -> {
+			try {
+				this.outputStream.write(record);
+			} catch(IOException e) {
+				if(this.exception == null) {
+					this.exception = e;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Close the journal, record the end of the game and wait for the journal to be written. Closing a closed
+	 * journal only throws the exception of the writing thread again.
+	 *
+	 * @throws IOException if the journal could not be written
+	 */
+	@Override
+	public void close() throws IOException {
+		Simulation simulation;
+		synchronized(this) {
+			simulation = this.simulation;
+		}
+		// read without the lock of the journal, taken by the thread running the simulation while it is locked
+		long ticks = (simulation == null) ? 0 : simulation.getTicks();
+		synchronized(this) {
+			if(!this.closed) {
+				this.closed = true;
+				closeJournal(ticks);
+			}
+		}
+		try {
+			this.executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch(InterruptedException e) {
+			e.printStackTrace();
+		}
+		if(this.exception != null) {
+			throw this.exception;
+		}
+	}
+
+	private void closeJournal(long ticks) {
+		if(this.simulation != null) {
+			this.eventDispatcher.removeListener(GameExitEvent.class, this.onGameExitEvent);
+			try {
+				// the simulation may have recorded a change since its ticks were read
+				writeRecordStart(EventJournalFormat.END, Math.max(ticks, this.lastTicks));
+			} catch(IOException e) {
+				// not thrown by a ByteArrayOutputStream
+				throw new IllegalStateException(e);
+			}
+			flushRecord();
+		}
+		this.executorService.execute(() -> {
+			try {
+				this.outputStream.close();
+			} catch(IOException e) {
+				if(this.exception == null) {
+					this.exception = e;
+				}
+			}
+		});
+		this.executorService.shutdown();
+	}
+
+}
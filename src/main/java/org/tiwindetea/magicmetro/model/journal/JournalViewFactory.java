@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.journal;
+
+import org.arakhne.afc.math.geometry.d2.d.MultiShape2d;
+import org.arakhne.afc.math.geometry.d2.d.Rectangle2d;
+import org.tiwindetea.magicmetro.global.scripts.ElementScript;
+import org.tiwindetea.magicmetro.global.util.Pair;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.TrainType;
+import org.tiwindetea.magicmetro.view.InventoryView;
+import org.tiwindetea.magicmetro.view.LineView;
+import org.tiwindetea.magicmetro.view.PassengerCarView;
+import org.tiwindetea.magicmetro.view.StationView;
+import org.tiwindetea.magicmetro.view.TrainView;
+import org.tiwindetea.magicmetro.view.ViewFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal ViewFactory, delegate the creation of the views to another factory and keep the game ids of the station
+ * and line views in creation order.<p>
+ * The journal refers to the stations and lines by their creation order, their ordinal, as the ids given by the
+ * views of a replay differ from the ids of the recorded game.
+ *
+ * @author Maxime PINARD
+ * @see EventJournalWriter
+ * @see EventJournalReplay
+ * @since 0.1
+ */
+public class JournalViewFactory implements ViewFactory {
+
+	private final ViewFactory viewFactory;
+	private final boolean askElementChoices;
+	private final List<Integer> stationsIds = new ArrayList<>();
+	private final Map<Integer, Integer> stationsOrdinals = new HashMap<>();
+	private final List<Integer> linesIds = new ArrayList<>();
+	private final Map<Integer, Integer> linesOrdinals = new HashMap<>();
+
+	/**
+	 * Instantiates a new JournalViewFactory.
+	 *
+	 * @param viewFactory       the view factory creating the views
+	 * @param askElementChoices true to forward the element choices to the view factory, false to ignore them as the
+	 *                          chosen elements are replayed from the journal
+	 */
+	public JournalViewFactory(@Nonnull ViewFactory viewFactory, boolean askElementChoices) {
+		this.viewFactory = viewFactory;
+		this.askElementChoices = askElementChoices;
+	}
+
+	@Override
+	public void setMapSize(double width, double height) {
+		this.viewFactory.setMapSize(width, height);
+	}
+
+	@Override
+	public void setWater(MultiShape2d<Rectangle2d> water) {
+		this.viewFactory.setWater(water);
+	}
+
+	@Override
+	public void setGameTime(long timeMillis) {
+		this.viewFactory.setGameTime(timeMillis);
+	}
+
+	@Override
+	public TrainView createTrainView(TrainType type) {
+		return this.viewFactory.createTrainView(type);
+	}
+
+	@Override
+	public synchronized StationView createStationView(StationType type) {
+		StationView stationView = this.viewFactory.createStationView(type);
+		this.stationsOrdinals.put(stationView.getGameId(), this.stationsIds.size());
+		this.stationsIds.add(stationView.getGameId());
+		return stationView;
+	}
+
+	@Override
+	public synchronized LineView createLineView() {
+		LineView lineView = this.viewFactory.createLineView();
+		this.linesOrdinals.put(lineView.getGameId(), this.linesIds.size());
+		this.linesIds.add(lineView.getGameId());
+		return lineView;
+	}
+
+	@Override
+	public PassengerCarView createPassengerCarView() {
+		return this.viewFactory.createPassengerCarView();
+	}
+
+	@Override
+	public InventoryView getInventoryView() {
+		return this.viewFactory.getInventoryView();
+	}
+
+	@Override
+	public void askElementChoice(List<Pair<ElementScript, Integer>> elementScripts) {
+		if(this.askElementChoices) {
+			this.viewFactory.askElementChoice(elementScripts);
+		}
+	}
+
+	/**
+	 * Gets the ordinal of a station.
+	 *
+	 * @param stationId the station id
+	 * @return the ordinal of the station, -1 if no station view has this id
+	 */
+	public synchronized int getStationOrdinal(int stationId) {
+		Integer ordinal = this.stationsOrdinals.get(stationId);
+		return (ordinal == null) ? -1 : ordinal;
+	}
+
+	/**
+	 * Gets the id of a station.
+	 *
+	 * @param ordinal the ordinal of the station
+	 * @return the id of the station
+	 * @throws IllegalStateException if the station does not exist yet
+	 */
+	public synchronized int getStationId(int ordinal) {
+		if(ordinal >= this.stationsIds.size()) {
+			throw new IllegalStateException("station " + ordinal + " does not exist yet");
+		}
+		return this.stationsIds.get(ordinal);
+	}
+
+	/**
+	 * Gets the ordinal of a line.
+	 *
+	 * @param lineId the line id
+	 * @return the ordinal of the line, -1 if no line view has this id
+	 */
+	public synchronized int getLineOrdinal(int lineId) {
+		Integer ordinal = this.linesOrdinals.get(lineId);
+		return (ordinal == null) ? -1 : ordinal;
+	}
+
+	/**
+	 * Gets the id of a line.
+	 *
+	 * @param ordinal the ordinal of the line
+	 * @return the id of the line
+	 * @throws IllegalStateException if the line does not exist yet
+	 */
+	public synchronized int getLineId(int ordinal) {
+		if(ordinal >= this.linesIds.size()) {
+			throw new IllegalStateException("line " + ordinal + " does not exist yet");
+		}
+		return this.linesIds.get(ordinal);
+	}
+
+}
@@ -36,6 +36,7 @@ import org.tiwindetea.magicmetro.view.LineView;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -57,6 +58,7 @@ public class Line {
 
 	private List<Station> stations = new LinkedList<>();
 	private List<Section> sections = new LinkedList<>();
+	private volatile double length = -1; // -1 if the sections changed since the last computation
 	private SimplePair<Connection> lastConnections;
 	private List<Connection> stationConnection = new LinkedList<>();
 
@@ -129,6 +131,7 @@ public class Line {
 		this.stations.add(fromStation);
 		this.stations.add(toStation);
 		this.sections.add(section);
+		this.length = -1;
 	}
 
 	/**
@@ -191,6 +194,7 @@ public class Line {
 
 		this.stations.add(toStation);
 		this.sections.add(section);
+		this.length = -1;
 	}
 
 	/**
@@ -317,6 +321,7 @@ public class Line {
 		this.stations.add(middleStation);
 		this.sections.add(leftSection);
 		this.sections.add(rightSection);
+		this.length = -1;
 	}
 
 	/**
@@ -383,9 +388,11 @@ public class Line {
 
 		//TODO: remove old section from view
 
+		oldStation.removeConnection(oldConnection);
 		this.stations.remove(oldStation);
 		this.sections.remove(oldSection);
 		this.view.deleteSection(oldSection.gameId);
+		this.length = -1;
 
 		if(this.sections.isEmpty()) {
 			lastConnection.setSubSectionLeft(null);
@@ -413,6 +420,34 @@ public class Line {
 		return this.stations.contains(station);
 	}
 
+	/**
+	 * Gets the stations of the line, the line is only changed by its events.
+	 *
+	 * @return an unmodifiable view of the stations
+	 */
+	@Nonnull
+	public List<Station> getStations() {
+		return Collections.unmodifiableList(this.stations);
+	}
+
+	/**
+	 * Gets the length of the line, the sum of the lengths of its sections.
+	 *
+	 * @return the length
+	 */
+	public double getLength() {
+		double length = this.length;
+		if(length < 0) {
+			// summed before the field is set, so other threads never read a partial length
+			length = 0;
+			for(Section section : this.sections) {
+				length += section.getLength();
+			}
+			this.length = length;
+		}
+		return length;
+	}
+
 	/**
 	 * Gets last connections.
 	 *
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of integer nodes in [0, capacity) with double keys, supporting key decrease.<p>
+ * Used by the searches of the routing, it does not allocate after its creation.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+class IndexedMinHeap {
+
+	private final int[] heap;
+	private final int[] positions; // position of the node in the heap, -1 if not in the heap
+	private final double[] keys;
+	private int size = 0;
+
+	/**
+	 * Instantiates a new IndexedMinHeap.
+	 *
+	 * @param capacity the number of nodes
+	 */
+	IndexedMinHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.keys = new double[capacity];
+		Arrays.fill(this.positions, -1);
+	}
+
+	/**
+	 * Determine if the heap is empty.
+	 *
+	 * @return true if empty, false otherwise
+	 */
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Remove all the nodes.
+	 */
+	void clear() {
+		for(int i = 0; i < this.size; ++i) {
+			this.positions[this.heap[i]] = -1;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Add a node or decrease its key if it is already in the heap with a bigger key.
+	 *
+	 * @param node the node
+	 * @param key  the key
+	 */
+	void push(int node, double key) {
+		int position = this.positions[node];
+		if(position < 0) {
+			position = this.size++;
+			this.heap[position] = node;
+			this.positions[node] = position;
+		}
+		else if(key >= this.keys[node]) {
+			return;
+		}
+		this.keys[node] = key;
+		siftUp(position);
+	}
+
+	/**
+	 * Gets the key of the node with the smallest key.
+	 *
+	 * @return the smallest key
+	 */
+	double peekKey() {
+		return this.keys[this.heap[0]];
+	}
+
+	/**
+	 * Remove the node with the smallest key.
+	 *
+	 * @return the node
+	 */
+	int poll() {
+		int node = this.heap[0];
+		this.positions[node] = -1;
+		--this.size;
+		if(this.size > 0) {
+			this.heap[0] = this.heap[this.size];
+			this.positions[this.heap[0]] = 0;
+			siftDown(0);
+		}
+		return node;
+	}
+
+	private void siftUp(int position) {
+		int node = this.heap[position];
+		double key = this.keys[node];
+		while(position > 0) {
+			int parentPosition = (position - 1) >>> 1;
+			int parent = this.heap[parentPosition];
+			if(this.keys[parent] <= key) {
+				break;
+			}
+			this.heap[position] = parent;
+			this.positions[parent] = position;
+			position = parentPosition;
+		}
+		this.heap[position] = node;
+		this.positions[node] = position;
+	}
+
+	private void siftDown(int position) {
+		int node = this.heap[position];
+		double key = this.keys[node];
+		int half = this.size >>> 1;
+		while(position < half) {
+			int childPosition = 2 * position + 1;
+			int child = this.heap[childPosition];
+			if(childPosition + 1 < this.size && this.keys[this.heap[childPosition + 1]] < this.keys[child]) {
+				child = this.heap[++childPosition];
+			}
+			if(key <= this.keys[child]) {
+				break;
+			}
+			this.heap[position] = child;
+			this.positions[child] = position;
+			position = childPosition;
+		}
+		this.heap[position] = node;
+		this.positions[node] = position;
+	}
+
+}
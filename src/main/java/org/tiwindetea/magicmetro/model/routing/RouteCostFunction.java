@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import org.tiwindetea.magicmetro.model.Station;
+import org.tiwindetea.magicmetro.model.lines.Line;
+import org.tiwindetea.magicmetro.model.lines.Section;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Cost of the parts of a route, used to weight the edges of the station graph.<p>
+ * The costs must be positive, an infinite cost means that the part can't be used. Costs are evaluated when the
+ * station graph is built, not during the route search.
+ *
+ * @author Maxime PINARD
+ * @see StationGraph
+ * @since 0.1
+ */
+public interface RouteCostFunction {
+
+	/**
+	 * Gets the cost of riding a section in a train, including the stops of the train at the stations of the
+	 * section (half of a stop for each station).
+	 *
+	 * @param section the section
+	 * @return the cost
+	 */
+	double getRideCost(@Nonnull Section section);
+
+	/**
+	 * Gets the cost of moving between a station and a train of a line, paid when boarding the train and again
+	 * when alighting from it.
+	 *
+	 * @param station      the station
+	 * @param line         the line
+	 * @param trainsNumber the number of trains on the line
+	 * @return the cost
+	 */
+	double getTransferCost(@Nonnull Station station, @Nonnull Line line, int trainsNumber);
+
+}
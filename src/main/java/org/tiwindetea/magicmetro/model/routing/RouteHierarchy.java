@@ -0,0 +1,479 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Two levels hierarchy of a station graph, for the routing of very large maps.<p>
+ * Platforms of stations served by a single line, between two other stations of the line, are contracted into
+ * chains: a passenger on such a platform can only ride forward, ride backward, or leave the train if the station
+ * is the wanted one. The other nodes form the core of the graph, where the chains are replaced by shortcuts
+ * between their two ends (both ends are the same node when a line loops). Routes are searched on the small core
+ * only, then the chains are filled in a single sweep each, without any heap.<p>
+ * Like the station graph, a hierarchy is never modified once built, so it can be read from any thread.
+ *
+ * @author Maxime PINARD
+ * @see RoutingTable
+ * @since 0.1
+ */
+public class RouteHierarchy {
+
+	private final StationGraph graph;
+	private final int[] chains; // chain of each chain platform and chain station node, -1 for core nodes
+	private final int[] coreNodes;
+
+	private final int[] chainsOffsets; // platforms of the chain i are in [chainsOffsets[i], chainsOffsets[i + 1])
+	private final int[] chainsNodes;
+	private final double[] chainsTransfers; // transfer cost of each chain platform, infinite without transfer
+	private final double[] chainsRides; // rides between the ends and the platforms of the chain i are in
+	// [chainsOffsets[i] + i, chainsOffsets[i + 1] + i + 1), from the first end to the second end
+	private final int[] chainsEnds; // [2 * chain] and [2 * chain + 1]
+	private final int maxChainLength;
+
+	private final int[] coreEdgesOffsets; // core edges of the node i are in [offsets[i], offsets[i + 1])
+	private final int[] coreEdgesTargets;
+	private final double[] coreEdgesCosts;
+	private final int[] coreEdgesHops; // first node of the edge from its source
+	private final int[] coreEdgesReturns; // first node of the edge from its target
+	private final int[] coreEdgesChains; // 2 * chain + side of the source for a shortcut, -1 otherwise
+
+	/**
+	 * Instantiates a new RouteHierarchy, contract the chains of a station graph.
+	 *
+	 * @param graph the station graph
+	 */
+	public RouteHierarchy(@Nonnull StationGraph graph) {
+		this.graph = graph;
+		int nodesNumber = graph.getNodesNumber();
+
+		boolean[] chainPlatforms = new boolean[nodesNumber];
+		for(int node = 0; node < nodesNumber; ++node) {
+			chainPlatforms[node] = isChainPlatform(node);
+		}
+
+		// chains, a ring of chain platforms is cut by moving one of them in the core
+		this.chains = new int[nodesNumber];
+		Arrays.fill(this.chains, -1);
+		int[] chainsOffsets = new int[nodesNumber + 1];
+		int[] chainsNodes = new int[nodesNumber];
+		int[] chainsEnds = new int[2 * nodesNumber];
+		int chainsNumber = 0;
+		int chainsNodesNumber = 0;
+		int maxChainLength = 0;
+		for(int node = 0; node < nodesNumber; ++node) {
+			if(!chainPlatforms[node] || this.chains[node] >= 0) {
+				continue;
+			}
+			int previous = node;
+			int current = nextRide(node, -1);
+			while(chainPlatforms[current] && current != node) {
+				int next = nextRide(current, previous);
+				previous = current;
+				current = next;
+			}
+			if(current == node) {
+				chainPlatforms[node] = false;
+				continue;
+			}
+
+			chainsEnds[2 * chainsNumber] = current;
+			int end = current;
+			current = previous;
+			previous = end;
+			int length = 0;
+			while(chainPlatforms[current]) {
+				this.chains[current] = chainsNumber;
+				chainsNodes[chainsNodesNumber++] = current;
+				++length;
+				int next = nextRide(current, previous);
+				previous = current;
+				current = next;
+			}
+			chainsEnds[2 * chainsNumber + 1] = current;
+			maxChainLength = Math.max(maxChainLength, length);
+			chainsOffsets[++chainsNumber] = chainsNodesNumber;
+		}
+
+		this.chainsOffsets = Arrays.copyOf(chainsOffsets, chainsNumber + 1);
+		this.chainsNodes = Arrays.copyOf(chainsNodes, chainsNodesNumber);
+		this.chainsEnds = Arrays.copyOf(chainsEnds, 2 * chainsNumber);
+		this.maxChainLength = maxChainLength;
+		this.chainsTransfers = new double[chainsNodesNumber];
+		this.chainsRides = new double[chainsNodesNumber + chainsNumber];
+		for(int chain = 0; chain < chainsNumber; ++chain) {
+			int previous = this.chainsEnds[2 * chain];
+			for(int i = this.chainsOffsets[chain]; i < this.chainsOffsets[chain + 1]; ++i) {
+				int node = this.chainsNodes[i];
+				int stationNode = graph.getStationNode(node);
+				this.chainsTransfers[i] = graph.getCost(node, stationNode);
+				if(!Double.isInfinite(this.chainsTransfers[i])) {
+					this.chains[stationNode] = chain;
+				}
+				this.chainsRides[i + chain] = graph.getCost(previous, node);
+				previous = node;
+			}
+			this.chainsRides[this.chainsOffsets[chain + 1] + chain] = graph.getCost(previous,
+			  this.chainsEnds[2 * chain + 1]);
+		}
+
+		int coreNodesNumber = 0;
+		for(int node = 0; node < nodesNumber; ++node) {
+			if(this.chains[node] < 0) {
+				++coreNodesNumber;
+			}
+		}
+		this.coreNodes = new int[coreNodesNumber];
+		coreNodesNumber = 0;
+		for(int node = 0; node < nodesNumber; ++node) {
+			if(this.chains[node] < 0) {
+				this.coreNodes[coreNodesNumber++] = node;
+			}
+		}
+
+		this.coreEdgesOffsets = new int[nodesNumber + 1];
+		for(int node = 0; node < nodesNumber; ++node) {
+			this.coreEdgesOffsets[node + 1] = this.coreEdgesOffsets[node] + addCoreEdges(node, -1);
+		}
+		this.coreEdgesTargets = new int[this.coreEdgesOffsets[nodesNumber]];
+		this.coreEdgesCosts = new double[this.coreEdgesTargets.length];
+		this.coreEdgesHops = new int[this.coreEdgesTargets.length];
+		this.coreEdgesReturns = new int[this.coreEdgesTargets.length];
+		this.coreEdgesChains = new int[this.coreEdgesTargets.length];
+		for(int node = 0; node < nodesNumber; ++node) {
+			addCoreEdges(node, this.coreEdgesOffsets[node]);
+		}
+	}
+
+	/**
+	 * Check if a node is a chain platform: a platform with exactly two ride edges, to different platforms, and
+	 * whose station node has no other platform.
+	 *
+	 * @param node the node
+	 * @return true if the node is a chain platform, false otherwise
+	 */
+	private boolean isChainPlatform(int node) {
+		if(this.graph.getType(node) >= 0) {
+			return false;
+		}
+		int stationNode = this.graph.getStationNode(node);
+		int rides = 0;
+		int firstRide = -1;
+		for(int edge = this.graph.getFirstEdge(node); edge < this.graph.getLastEdge(node); ++edge) {
+			int target = this.graph.getTarget(edge);
+			if(target == stationNode) {
+				if(this.graph.getLastEdge(stationNode) - this.graph.getFirstEdge(stationNode) != 1) {
+					return false;
+				}
+			}
+			else if(rides == 0) {
+				firstRide = target;
+				++rides;
+			}
+			else if(target == firstRide || ++rides > 2) {
+				return false;
+			}
+		}
+		return rides == 2;
+	}
+
+	/**
+	 * Gets the ride neighbour of a chain platform which is not the previous node.
+	 *
+	 * @param node     the chain platform
+	 * @param previous the previous node, or -1 to get any ride neighbour
+	 * @return the ride neighbour
+	 */
+	private int nextRide(int node, int previous) {
+		int stationNode = this.graph.getStationNode(node);
+		for(int edge = this.graph.getFirstEdge(node); edge < this.graph.getLastEdge(node); ++edge) {
+			int target = this.graph.getTarget(edge);
+			if(target != stationNode && target != previous) {
+				return target;
+			}
+		}
+		throw new IllegalStateException("The chain platform " + node + " has no other ride neighbour");
+	}
+
+	/**
+	 * Add the core edges of a node to the core edges arrays.
+	 *
+	 * @param node   the node
+	 * @param offset the index of the first core edge of the node, or -1 to only count the edges
+	 * @return the number of core edges of the node
+	 */
+	private int addCoreEdges(int node, int offset) {
+		if(this.chains[node] >= 0) {
+			return 0;
+		}
+		int edges = 0;
+		for(int edge = this.graph.getFirstEdge(node); edge < this.graph.getLastEdge(node); ++edge) {
+			int target = this.graph.getTarget(edge);
+			int chain = this.chains[target];
+			int hop = target;
+			int returnNode = node;
+			int chainSide = -1;
+			double cost = this.graph.getCost(edge);
+			if(chain >= 0) {
+				int first = this.chainsOffsets[chain];
+				int last = this.chainsOffsets[chain + 1] - 1;
+				if(target == this.chainsNodes[first] && node == this.chainsEnds[2 * chain]) {
+					returnNode = this.chainsNodes[last];
+					target = this.chainsEnds[2 * chain + 1];
+					chainSide = 2 * chain;
+				}
+				else if(target == this.chainsNodes[last] && node == this.chainsEnds[2 * chain + 1]) {
+					returnNode = this.chainsNodes[first];
+					target = this.chainsEnds[2 * chain];
+					chainSide = 2 * chain + 1;
+				}
+				else {
+					continue;
+				}
+				cost = getChainLength(chain);
+			}
+			if(offset >= 0) {
+				this.coreEdgesTargets[offset + edges] = target;
+				this.coreEdgesCosts[offset + edges] = cost;
+				this.coreEdgesHops[offset + edges] = hop;
+				this.coreEdgesReturns[offset + edges] = returnNode;
+				this.coreEdgesChains[offset + edges] = chainSide;
+			}
+			++edges;
+		}
+		return edges;
+	}
+
+	/**
+	 * Gets the station graph.
+	 *
+	 * @return the station graph
+	 */
+	@Nonnull
+	public StationGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Gets the number of core nodes.
+	 *
+	 * @return the number of core nodes
+	 */
+	public int getCoreNodesNumber() {
+		return this.coreNodes.length;
+	}
+
+	/**
+	 * Gets the number of chains.
+	 *
+	 * @return the number of chains
+	 */
+	public int getChainsNumber() {
+		return this.chainsOffsets.length - 1;
+	}
+
+	/**
+	 * Gets a core node.
+	 *
+	 * @param index the index of the core node, in [0, core nodes number)
+	 * @return the node
+	 */
+	int getCoreNode(int index) {
+		return this.coreNodes[index];
+	}
+
+	/**
+	 * Gets the chain of a node.
+	 *
+	 * @param node the node
+	 * @return the chain, or -1 for a core node
+	 */
+	int getChain(int node) {
+		return this.chains[node];
+	}
+
+	/**
+	 * Gets the number of platforms of the longest chain.
+	 *
+	 * @return the number of platforms
+	 */
+	int getMaxChainLength() {
+		return this.maxChainLength;
+	}
+
+	/**
+	 * Gets the first platform of a chain.
+	 *
+	 * @param chain the chain
+	 * @return the index of the platform
+	 * @see #getChainNode(int)
+	 */
+	int getChainFirst(int chain) {
+		return this.chainsOffsets[chain];
+	}
+
+	/**
+	 * Gets the end of the platforms of a chain (exclusive).
+	 *
+	 * @param chain the chain
+	 * @return the index following the last platform of the chain
+	 * @see #getChainNode(int)
+	 */
+	int getChainLast(int chain) {
+		return this.chainsOffsets[chain + 1];
+	}
+
+	/**
+	 * Gets a chain platform.
+	 *
+	 * @param index the index of the platform
+	 * @return the platform node
+	 */
+	int getChainNode(int index) {
+		return this.chainsNodes[index];
+	}
+
+	/**
+	 * Gets the transfer cost of a chain platform.
+	 *
+	 * @param index the index of the platform
+	 * @return the transfer cost, or {@link Double#POSITIVE_INFINITY} if the platform has no transfer
+	 */
+	double getChainTransfer(int index) {
+		return this.chainsTransfers[index];
+	}
+
+	/**
+	 * Gets the cost of the ride to a chain platform from the previous platform, or from the first end for the first
+	 * platform.
+	 *
+	 * @param chain the chain
+	 * @param index the index of the platform, or the end of the platforms of the chain for the ride to the second
+	 *              end
+	 * @return the ride cost
+	 */
+	double getChainRide(int chain, int index) {
+		return this.chainsRides[index + chain];
+	}
+
+	/**
+	 * Gets an end of a chain.
+	 *
+	 * @param chain the chain
+	 * @param side  0 for the end before the first platform, 1 for the end after the last platform
+	 * @return the end node
+	 */
+	int getChainEnd(int chain, int side) {
+		return this.chainsEnds[2 * chain + side];
+	}
+
+	/**
+	 * Gets the cost of the ride from an end of a chain to the other end.
+	 *
+	 * @param chain the chain
+	 * @return the cost
+	 */
+	double getChainLength(int chain) {
+		double cost = 0;
+		for(int i = this.chainsOffsets[chain] + chain; i <= this.chainsOffsets[chain + 1] + chain; ++i) {
+			cost += this.chainsRides[i];
+		}
+		return cost;
+	}
+
+	/**
+	 * Gets the first core edge of a node.
+	 *
+	 * @param node the node
+	 * @return the first core edge
+	 */
+	int getFirstCoreEdge(int node) {
+		return this.coreEdgesOffsets[node];
+	}
+
+	/**
+	 * Gets the end of the core edges of a node (exclusive).
+	 *
+	 * @param node the node
+	 * @return the core edge following the last core edge of the node
+	 */
+	int getLastCoreEdge(int node) {
+		return this.coreEdgesOffsets[node + 1];
+	}
+
+	/**
+	 * Gets the node at the end of a core edge.
+	 *
+	 * @param edge the core edge
+	 * @return the node
+	 */
+	int getCoreTarget(int edge) {
+		return this.coreEdgesTargets[edge];
+	}
+
+	/**
+	 * Gets the cost of a core edge.
+	 *
+	 * @param edge the core edge
+	 * @return the cost
+	 */
+	double getCoreCost(int edge) {
+		return this.coreEdgesCosts[edge];
+	}
+
+	/**
+	 * Gets the first node of the route from the source of a core edge to its target: the target itself, or the
+	 * closest platform of the chain of a shortcut.
+	 *
+	 * @param edge the core edge
+	 * @return the node
+	 */
+	int getCoreHop(int edge) {
+		return this.coreEdgesHops[edge];
+	}
+
+	/**
+	 * Gets the chain of a shortcut.
+	 *
+	 * @param edge the core edge
+	 * @return 2 * chain + side of the source of the edge, or -1 if the edge is not a shortcut
+	 */
+	int getCoreChain(int edge) {
+		return this.coreEdgesChains[edge];
+	}
+
+	/**
+	 * Gets the first node of the route from the target of a core edge to its source: the source itself, or the
+	 * closest platform of the chain of a shortcut.
+	 *
+	 * @param edge the core edge
+	 * @return the node
+	 */
+	int getCoreReturn(int edge) {
+		return this.coreEdgesReturns[edge];
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import org.tiwindetea.magicmetro.model.Station;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Route planner, compute the routing tables in a background thread.<p>
+ * The station graph snapshots are built by the caller, the planner repairs the last routing table with them and
+ * publishes the new table atomically. Until then, the previous table is still used. When several snapshots are
+ * given while the planner is busy, they are planned in order, each table repairing the previous one, so the table
+ * of a version does not depend on the timing of the planner.<p>
+ * The published tables are kept until a newer one is used, a reader can ask for the newest table not newer than a
+ * version to use the same tables as a recorded game. A synchronous planner computes the tables in the calling
+ * thread instead, so the routes of a game only depend on its events.
+ *
+ * @author Maxime PINARD
+ * @see RoutingTable
+ * @since 0.1
+ */
+public class RoutePlanner {
+
+	private static class Snapshot {
+
+		final StationGraph graph;
+		final List<Station> touchedStations;
+		final long version;
+		final RoutingMode routingMode;
+
+		Snapshot(StationGraph graph, List<Station> touchedStations, long version, RoutingMode routingMode) {
+			this.graph = graph;
+			this.touchedStations = touchedStations;
+			this.version = version;
+			this.routingMode = routingMode;
+		}
+	}
+
+	private final AtomicReference<RoutingTable> routingTable; // last published table, repaired by the next one
+	private final Deque<RoutingTable> publishedTables = new ArrayDeque<>(); // the used table, then the newer ones
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "route planner");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Object pendingLock = new Object();
+	private final Queue<Snapshot> pendingSnapshots = new ArrayDeque<>(); // the first one is being planned
+	private RoutingMode routingMode = RoutingMode.FLAT;
+	private boolean synchronous = false;
+
+	private final Runnable planning = new Runnable() {
+		@Override
+		public void run() {
+			Snapshot snapshot;
+			synchronized(RoutePlanner.this.pendingLock) {
+				snapshot = RoutePlanner.this.pendingSnapshots.peek();
+			}
+			while(snapshot != null) {
+				plan(snapshot);
+				synchronized(RoutePlanner.this.pendingLock) {
+					RoutePlanner.this.pendingSnapshots.remove();
+					snapshot = RoutePlanner.this.pendingSnapshots.peek();
+				}
+			}
+		}
+	};
+
+	/**
+	 * Instantiates a new RoutePlanner.
+	 *
+	 * @param graph   the initial station graph, its routing table is computed in the calling thread
+	 * @param version the version of the initial routing table
+	 */
+	public RoutePlanner(@Nonnull StationGraph graph, long version) {
+		RoutingTable routingTable = new RoutingTable(graph, version);
+		this.routingTable = new AtomicReference<>(routingTable);
+		this.publishedTables.add(routingTable);
+	}
+
+	/**
+	 * Ask for a new routing table, the table is computed in the background.
+	 *
+	 * @param graph           the new station graph
+	 * @param touchedStations the stations at the ends of the sections that were added or removed since the last
+	 *                        graph
+	 * @param version         the version of the new routing table, greater than the previous versions
+	 */
+	public void update(@Nonnull StationGraph graph, @Nonnull Collection<Station> touchedStations, long version) {
+		boolean submit;
+		boolean synchronous;
+		synchronized(this.pendingLock) {
+			submit = this.pendingSnapshots.isEmpty();
+			synchronous = this.synchronous;
+			this.pendingSnapshots.add(new Snapshot(graph,
+			  new ArrayList<>(new LinkedHashSet<>(touchedStations)),
+			  version,
+			  this.routingMode));
+		}
+		if(submit) {
+			if(synchronous) {
+				this.planning.run();
+			}
+			else {
+				this.executorService.execute(this.planning);
+			}
+		}
+	}
+
+	/**
+	 * Repair the last published routing table with a snapshot and publish the new table.
+	 *
+	 * @param snapshot the snapshot
+	 */
+	private void plan(@Nonnull Snapshot snapshot) {
+		RoutingTable previous = this.routingTable.get();
+		RoutingTable routingTable;
+		try {
+			if(snapshot.routingMode == RoutingMode.HIERARCHICAL) {
+				routingTable = new RoutingTable(previous,
+				  new RouteHierarchy(snapshot.graph),
+				  snapshot.touchedStations,
+				  snapshot.version);
+			}
+			else {
+				routingTable = new RoutingTable(previous, snapshot.graph, snapshot.touchedStations, snapshot.version);
+			}
+		} catch(RuntimeException e) {
+			// a failed repair falls back to a full search
+			e.printStackTrace();
+			routingTable = new RoutingTable(snapshot.graph, snapshot.version);
+		}
+		this.routingTable.set(routingTable);
+		synchronized(this.publishedTables) {
+			this.publishedTables.addLast(routingTable);
+		}
+	}
+
+	/**
+	 * Sets if the routing tables are computed in the calling thread of {@link #update(StationGraph, Collection,
+	 * long)}. When the planner becomes synchronous, waits for the tables being computed in the background.
+	 *
+	 * @param synchronous true to compute the tables in the calling thread, false to compute them in the background
+	 */
+	public void setSynchronous(boolean synchronous) {
+		synchronized(this.pendingLock) {
+			this.synchronous = synchronous;
+		}
+		if(synchronous) {
+			try {
+				this.executorService.submit(() -> {
+				}).get();
+			} catch(InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Sets the routing mode, used from the next routing table.
+	 *
+	 * @param routingMode the routing mode
+	 */
+	public void setRoutingMode(@Nonnull RoutingMode routingMode) {
+		synchronized(this.pendingLock) {
+			this.routingMode = routingMode;
+		}
+	}
+
+	/**
+	 * Gets the last published routing table, the older tables are no longer kept.
+	 *
+	 * @return the routing table
+	 */
+	@Nonnull
+	public RoutingTable getRoutingTable() {
+		return getRoutingTable(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Gets the newest published routing table whose version is not greater than a version, the older tables are no
+	 * longer kept. When all the published tables are newer, the oldest kept table is returned.
+	 *
+	 * @param maxVersion the maximum version
+	 * @return the routing table
+	 */
+	@Nonnull
+	public RoutingTable getRoutingTable(long maxVersion) {
+		synchronized(this.publishedTables) {
+			Iterator<RoutingTable> iterator = this.publishedTables.iterator();
+			RoutingTable routingTable = iterator.next();
+			int usedTables = 0;
+			while(iterator.hasNext()) {
+				RoutingTable nextRoutingTable = iterator.next();
+				if(nextRoutingTable.getVersion() > maxVersion) {
+					break;
+				}
+				routingTable = nextRoutingTable;
+				++usedTables;
+			}
+			for(int i = 0; i < usedTables; ++i) {
+				this.publishedTables.removeFirst();
+			}
+			return routingTable;
+		}
+	}
+
+	/**
+	 * Stop the planner thread, the last published routing table is still available.
+	 */
+	public void shutdown() {
+		this.executorService.shutdown();
+	}
+
+}
@@ -0,0 +1,905 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import org.tiwindetea.magicmetro.model.Station;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.lines.Line;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Routing table of the map, give for each node of the station graph and each wanted station type the next node to
+ * go to to reach the cheapest station of the wanted type.<p>
+ * The table is built once per network change and shared by all the passengers, when only a few sections
+ * changed it is repaired from the previous table instead of being computed again. On very large maps, the table
+ * can be computed on a {@link RouteHierarchy} of the graph, the routes are the same.<p>
+ * A table is never modified once built, so it can be read from any thread.
+ *
+ * @author Maxime PINARD
+ * @see StationGraph
+ * @since 0.1
+ */
+public class RoutingTable {
+
+	private static final int TYPES_NUMBER = StationType.values().length;
+	private static final int NO_NODE = -1;
+
+	private final long version;
+	private final StationGraph graph;
+	private final int[] nextNodes; // [type ordinal * nodes number + node]
+	private final double[] costs; // [type ordinal * nodes number + node]
+
+	/**
+	 * Instantiates a new RoutingTable, compute the routes between all the stations of a graph.
+	 *
+	 * @param graph   the station graph
+	 * @param version the version of the table
+	 */
+	public RoutingTable(@Nonnull StationGraph graph, long version) {
+		this.version = version;
+		this.graph = graph;
+		this.nextNodes = new int[TYPES_NUMBER * graph.getNodesNumber()];
+		this.costs = new double[TYPES_NUMBER * graph.getNodesNumber()];
+		searchAll();
+	}
+
+	/**
+	 * Instantiates a new RoutingTable, compute the routes between all the stations of a graph on its hierarchy.
+	 *
+	 * @param hierarchy the hierarchy of the station graph
+	 * @param version   the version of the table
+	 */
+	public RoutingTable(@Nonnull RouteHierarchy hierarchy, long version) {
+		this.version = version;
+		this.graph = hierarchy.getGraph();
+		this.nextNodes = new int[TYPES_NUMBER * this.graph.getNodesNumber()];
+		this.costs = new double[TYPES_NUMBER * this.graph.getNodesNumber()];
+		new HierarchicalSearch(hierarchy, null, null).searchAll();
+	}
+
+	/**
+	 * Instantiates a new RoutingTable by repairing a previous table after some sections were added or removed.<p>
+	 * Only the routes that used a removed or more expensive edge and the routes that can use an added or cheaper
+	 * edge are computed again.
+	 *
+	 * @param previous        the previous routing table
+	 * @param graph           the new station graph
+	 * @param touchedStations the stations whose edges may have changed
+	 * @param version         the version of the new table, greater than the version of the previous table
+	 */
+	public RoutingTable(@Nonnull RoutingTable previous,
+	                    @Nonnull StationGraph graph,
+	                    @Nonnull Collection<Station> touchedStations,
+	                    long version) {
+		this.version = version;
+		this.graph = graph;
+		this.nextNodes = new int[TYPES_NUMBER * graph.getNodesNumber()];
+		this.costs = new double[TYPES_NUMBER * graph.getNodesNumber()];
+		boolean[] invalidNodes = copyPrevious(previous);
+
+		// edges which are now more expensive or removed, and edges which are now cheaper or added
+		List<int[]> expensiveEdges = new ArrayList<>();
+		List<int[]> cheaperEdges = new ArrayList<>();
+		compareEdges(previous.graph, touchedStations, expensiveEdges, cheaperEdges);
+
+		// a node invalid for a station type may still have a route to another type, and be invalidated again by the
+		// repair of this type, the other nodes are invalidated at most once
+		int[] invalidated = new int[2 * graph.getNodesNumber()];
+		int invalidNodesNumber = 0;
+		for(int node = 0; node < invalidNodes.length; ++node) {
+			if(invalidNodes[node]) {
+				invalidated[invalidNodesNumber++] = node;
+			}
+		}
+		if(invalidNodesNumber == 0 && expensiveEdges.isEmpty() && cheaperEdges.isEmpty()) {
+			return;
+		}
+
+		IndexedMinHeap heap = new IndexedMinHeap(graph.getNodesNumber());
+		for(StationType stationType : StationType.values()) {
+			repair(stationType.ordinal(), invalidNodesNumber, expensiveEdges, cheaperEdges, heap, invalidated);
+		}
+	}
+
+	/**
+	 * Instantiates a new RoutingTable by repairing a previous table on the hierarchy of the new graph.<p>
+	 * Only the core routes that went through a changed edge or a chain with a changed edge are computed again, the
+	 * routes of the chains are computed again only if the chain has a changed edge or if the routes of its ends
+	 * changed.
+	 *
+	 * @param previous        the previous routing table
+	 * @param hierarchy       the hierarchy of the new station graph
+	 * @param touchedStations the stations whose edges may have changed
+	 * @param version         the version of the new table, greater than the version of the previous table
+	 */
+	public RoutingTable(@Nonnull RoutingTable previous,
+	                    @Nonnull RouteHierarchy hierarchy,
+	                    @Nonnull Collection<Station> touchedStations,
+	                    long version) {
+		this.version = version;
+		this.graph = hierarchy.getGraph();
+		this.nextNodes = new int[TYPES_NUMBER * this.graph.getNodesNumber()];
+		this.costs = new double[TYPES_NUMBER * this.graph.getNodesNumber()];
+		boolean[] dirtyNodes = copyPrevious(previous);
+		List<int[]> changedEdges = new ArrayList<>();
+		compareEdges(previous.graph, touchedStations, changedEdges, changedEdges);
+		for(int[] edge : changedEdges) {
+			dirtyNodes[edge[0]] = true;
+			dirtyNodes[edge[1]] = true;
+		}
+
+		boolean[] dirtyChains = new boolean[hierarchy.getChainsNumber()];
+		for(int chain = 0; chain < dirtyChains.length; ++chain) {
+			dirtyChains[chain] = dirtyNodes[hierarchy.getChainEnd(chain, 0)]
+			  || dirtyNodes[hierarchy.getChainEnd(chain, 1)];
+		}
+		for(int node = 0; node < dirtyNodes.length; ++node) {
+			if(dirtyNodes[node] && hierarchy.getChain(node) >= 0) {
+				dirtyChains[hierarchy.getChain(node)] = true;
+			}
+		}
+		new HierarchicalSearch(hierarchy, dirtyNodes, dirtyChains).searchAll();
+	}
+
+	/**
+	 * Copy the routes of a previous table, the nodes of the previous graph being matched with the nodes of the new
+	 * graph by station and line.<p>
+	 * The routes of the new nodes and the routes whose next node was removed are invalid, they are reset to no
+	 * route (or to the station itself for the station nodes of the wanted type).
+	 *
+	 * @param previous the previous table
+	 * @return the invalid nodes
+	 */
+	@Nonnull
+	private boolean[] copyPrevious(@Nonnull RoutingTable previous) {
+		int nodesNumber = this.graph.getNodesNumber();
+		int previousNodesNumber = previous.graph.getNodesNumber();
+		int[] newNodes = previous.graph.getNodesIn(this.graph); // new node of each previous node
+		int[] previousNodes = new int[nodesNumber]; // previous node of each new node
+		Arrays.fill(previousNodes, NO_NODE);
+		for(int node = 0; node < previousNodesNumber; ++node) {
+			if(newNodes[node] >= 0) {
+				previousNodes[newNodes[node]] = node;
+			}
+		}
+
+		boolean[] invalidNodes = new boolean[nodesNumber];
+		for(int typeIndex = 0; typeIndex < TYPES_NUMBER; ++typeIndex) {
+			int offset = typeIndex * nodesNumber;
+			int previousOffset = typeIndex * previousNodesNumber;
+			for(int node = 0; node < nodesNumber; ++node) {
+				int previousNode = previousNodes[node];
+				int previousNext = (previousNode < 0) ? NO_NODE : previous.nextNodes[previousOffset + previousNode];
+				if(previousNode < 0 || (previousNext != NO_NODE && newNodes[previousNext] < 0)) {
+					invalidNodes[node] = true;
+					this.nextNodes[offset + node] = NO_NODE;
+					this.costs[offset + node] = (this.graph.getType(node) == typeIndex) ? 0 : Double.POSITIVE_INFINITY;
+				}
+				else {
+					this.nextNodes[offset + node] = (previousNext == NO_NODE) ? NO_NODE : newNodes[previousNext];
+					this.costs[offset + node] = previous.costs[previousOffset + previousNode];
+				}
+			}
+		}
+		return invalidNodes;
+	}
+
+	/**
+	 * Compute the routes to all the station types.
+	 */
+	private void searchAll() {
+		Arrays.fill(this.nextNodes, NO_NODE);
+		Arrays.fill(this.costs, Double.POSITIVE_INFINITY);
+		IndexedMinHeap heap = new IndexedMinHeap(this.graph.getNodesNumber());
+		for(StationType stationType : StationType.values()) {
+			search(stationType.ordinal(), heap);
+		}
+	}
+
+	/**
+	 * Compare the edges of the touched stations between the previous graph and the new graph.
+	 *
+	 * @param previousGraph   the previous graph
+	 * @param touchedStations the stations whose edges may have changed
+	 * @param expensiveEdges  the list where the edges which are now more expensive or removed are added
+	 * @param cheaperEdges    the list where the edges which are now cheaper or added are added
+	 */
+	private void compareEdges(@Nonnull StationGraph previousGraph,
+	                          @Nonnull Collection<Station> touchedStations,
+	                          @Nonnull List<int[]> expensiveEdges,
+	                          @Nonnull List<int[]> cheaperEdges) {
+		for(Station station : touchedStations) {
+			int stationNode = this.graph.getNode(station);
+			for(int node = stationNode; node >= 0 && node < stationNode + this.graph.getNodesNumber(station); ++node) {
+				compareEdges(previousGraph, node, expensiveEdges, cheaperEdges);
+			}
+		}
+	}
+
+	/**
+	 * Compare the edges of a node between the previous graph and the new graph, in both directions.
+	 *
+	 * @param previousGraph  the previous graph
+	 * @param node           the node in the new graph
+	 * @param expensiveEdges the list where the edges which are now more expensive or removed are added
+	 * @param cheaperEdges   the list where the edges which are now cheaper or added are added
+	 */
+	private void compareEdges(@Nonnull StationGraph previousGraph,
+	                          int node,
+	                          @Nonnull List<int[]> expensiveEdges,
+	                          @Nonnull List<int[]> cheaperEdges) {
+		int previousNode = this.graph.getNodeIn(node, previousGraph);
+		for(int edge = this.graph.getFirstEdge(node); edge < this.graph.getLastEdge(node); ++edge) {
+			int neighbour = this.graph.getTarget(edge);
+			int previousNeighbour = this.graph.getNodeIn(neighbour, previousGraph);
+			double previousCost = (previousNode < 0 || previousNeighbour < 0) ?
+			  Double.POSITIVE_INFINITY : previousGraph.getCost(previousNode, previousNeighbour);
+			compareEdge(node, neighbour, previousCost, expensiveEdges, cheaperEdges);
+		}
+		if(previousNode < 0) {
+			return;
+		}
+		for(int edge = previousGraph.getFirstEdge(previousNode);
+		    edge < previousGraph.getLastEdge(previousNode);
+		    ++edge) {
+			int neighbour = previousGraph.getNodeIn(previousGraph.getTarget(edge), this.graph);
+			if(neighbour >= 0) {
+				compareEdge(node, neighbour, previousGraph.getCost(edge), expensiveEdges, cheaperEdges);
+			}
+		}
+	}
+
+	private void compareEdge(int node,
+	                         int neighbour,
+	                         double previousCost,
+	                         @Nonnull List<int[]> expensiveEdges,
+	                         @Nonnull List<int[]> cheaperEdges) {
+		double cost = this.graph.getCost(node, neighbour);
+		if(cost > previousCost) {
+			expensiveEdges.add(new int[]{node, neighbour});
+		}
+		else if(cost < previousCost) {
+			cheaperEdges.add(new int[]{node, neighbour});
+		}
+	}
+
+	/**
+	 * Repair the routes to a station type.<p>
+	 * The routes going through an edge which is now more expensive are invalidated, with all the routes going
+	 * through the invalidated nodes. Invalidated nodes restart from their valid neighbours, the edges which are now
+	 * cheaper are relaxed, then the changes are propagated like in a normal search.
+	 *
+	 * @param typeIndex          the wanted station type ordinal
+	 * @param invalidNodesNumber the number of nodes already invalidated at the beginning of the invalidated array
+	 * @param expensiveEdges     the edges which are now more expensive or removed
+	 * @param cheaperEdges       the edges which are now cheaper or added
+	 * @param heap               an empty heap
+	 * @param invalidated        an array able to contain the invalid nodes and all the nodes, beginning with the
+	 *                           invalid nodes
+	 */
+	private void repair(int typeIndex,
+	                    int invalidNodesNumber,
+	                    @Nonnull List<int[]> expensiveEdges,
+	                    @Nonnull List<int[]> cheaperEdges,
+	                    @Nonnull IndexedMinHeap heap,
+	                    @Nonnull int[] invalidated) {
+		int offset = typeIndex * this.graph.getNodesNumber();
+
+		int invalidatedNumber = invalidNodesNumber;
+		for(int i = 0; i < invalidNodesNumber; ++i) {
+			if(this.costs[offset + invalidated[i]] == 0) {
+				heap.push(invalidated[i], 0);
+			}
+		}
+		for(int[] edge : expensiveEdges) {
+			for(int side = 0; side < 2; ++side) {
+				int node = edge[side];
+				if(this.nextNodes[offset + node] == edge[1 - side]) {
+					invalidated[invalidatedNumber++] = node;
+					this.nextNodes[offset + node] = NO_NODE;
+					this.costs[offset + node] = Double.POSITIVE_INFINITY;
+				}
+			}
+		}
+		for(int i = 0; i < invalidatedNumber; ++i) {
+			int current = invalidated[i];
+			for(int edge = this.graph.getFirstEdge(current); edge < this.graph.getLastEdge(current); ++edge) {
+				int neighbour = this.graph.getTarget(edge);
+				if(this.nextNodes[offset + neighbour] == current) {
+					invalidated[invalidatedNumber++] = neighbour;
+					this.nextNodes[offset + neighbour] = NO_NODE;
+					this.costs[offset + neighbour] = Double.POSITIVE_INFINITY;
+				}
+			}
+		}
+
+		for(int i = 0; i < invalidatedNumber; ++i) {
+			int current = invalidated[i];
+			for(int edge = this.graph.getFirstEdge(current); edge < this.graph.getLastEdge(current); ++edge) {
+				relax(offset, this.graph.getTarget(edge), current, this.graph.getCost(edge), heap);
+			}
+		}
+		for(int[] edge : cheaperEdges) {
+			double cost = this.graph.getCost(edge[0], edge[1]);
+			relax(offset, edge[1], edge[0], cost, heap);
+			relax(offset, edge[0], edge[1], cost, heap);
+		}
+
+		propagate(offset, heap);
+	}
+
+	/**
+	 * Relax an edge, go to a node through a neighbour if it is cheaper.
+	 *
+	 * @param offset    the offset of the wanted station type in the arrays
+	 * @param neighbour the neighbour
+	 * @param node      the node
+	 * @param cost      the cost of the edge between the node and the neighbour
+	 * @param heap      the heap of the nodes to propagate
+	 */
+	private void relax(int offset, int neighbour, int node, double cost, @Nonnull IndexedMinHeap heap) {
+		double newCost = this.costs[offset + neighbour] + cost;
+		if(newCost < this.costs[offset + node]) {
+			this.costs[offset + node] = newCost;
+			this.nextNodes[offset + node] = neighbour;
+			heap.push(node, newCost);
+		}
+	}
+
+	/**
+	 * Search the routes to a station type for all the nodes.<p>
+	 * The search start from all the station nodes of the wanted type at the same time and go backward, edges are
+	 * symmetric so the neighbours of a node are also its predecessors.
+	 *
+	 * @param typeIndex the wanted station type ordinal
+	 * @param heap      an empty heap
+	 */
+	private void search(int typeIndex, @Nonnull IndexedMinHeap heap) {
+		int offset = typeIndex * this.graph.getNodesNumber();
+		for(int node = 0; node < this.graph.getNodesNumber(); ++node) {
+			if(this.graph.getType(node) == typeIndex) {
+				this.costs[offset + node] = 0;
+				heap.push(node, 0);
+			}
+		}
+
+		propagate(offset, heap);
+	}
+
+	/**
+	 * Propagate the costs from the nodes in the heap until the heap is empty.
+	 *
+	 * @param offset the offset of the wanted station type in the arrays
+	 * @param heap   the heap of the nodes to propagate
+	 */
+	private void propagate(int offset, @Nonnull IndexedMinHeap heap) {
+		while(!heap.isEmpty()) {
+			int current = heap.poll();
+			for(int edge = this.graph.getFirstEdge(current); edge < this.graph.getLastEdge(current); ++edge) {
+				relax(offset, current, this.graph.getTarget(edge), this.graph.getCost(edge), heap);
+			}
+		}
+	}
+
+	/**
+	 * Search of the routes on the hierarchy of the graph.<p>
+	 * For each station type, the cheapest ways to leave each chain at a station of the type give the first routes
+	 * of its ends, then the routes are propagated on the core nodes with the shortcuts, like in a normal search.
+	 * Finally, the chains are swept from both ends: a chain platform either rides towards one of the ends or leaves
+	 * the train at its station.<p>
+	 * When repairing a table, only the core routes going through a dirty node or chain are invalidated and searched
+	 * again, and only the dirty chains and the chains whose ends routes changed are swept.
+	 */
+	private class HierarchicalSearch {
+
+		private final RouteHierarchy hierarchy;
+		private final boolean[] dirtyNodes;
+		private final boolean[] dirtyChains;
+		private final double[] fromFirstEnd;
+		private final double[] fromSecondEnd;
+		private final double[] previousEndsCosts;
+		private final boolean[] previousEndsInChains;
+		private final int[] invalidated;
+
+		/**
+		 * Instantiates a new HierarchicalSearch.
+		 *
+		 * @param hierarchy   the hierarchy of the graph
+		 * @param dirtyNodes  the nodes whose edges or routes may have changed, or null to compute all the routes
+		 * @param dirtyChains the chains with a dirty node or a dirty end, or null to compute all the routes
+		 */
+		HierarchicalSearch(@Nonnull RouteHierarchy hierarchy,
+		                   @Nullable boolean[] dirtyNodes,
+		                   @Nullable boolean[] dirtyChains) {
+			this.hierarchy = hierarchy;
+			this.dirtyNodes = dirtyNodes;
+			this.dirtyChains = dirtyChains;
+			this.fromFirstEnd = new double[hierarchy.getMaxChainLength() + 2];
+			this.fromSecondEnd = new double[hierarchy.getMaxChainLength() + 2];
+			this.previousEndsCosts = new double[2 * hierarchy.getChainsNumber()];
+			this.previousEndsInChains = new boolean[2 * hierarchy.getChainsNumber()];
+			this.invalidated = new int[hierarchy.getCoreNodesNumber()];
+		}
+
+		/**
+		 * Compute the routes to all the station types.
+		 */
+		void searchAll() {
+			if(this.dirtyNodes == null) {
+				Arrays.fill(RoutingTable.this.nextNodes, NO_NODE);
+				Arrays.fill(RoutingTable.this.costs, Double.POSITIVE_INFINITY);
+			}
+			IndexedMinHeap heap = new IndexedMinHeap(RoutingTable.this.graph.getNodesNumber());
+			for(StationType stationType : StationType.values()) {
+				int typeIndex = stationType.ordinal();
+				int offset = typeIndex * RoutingTable.this.graph.getNodesNumber();
+				for(int chain = 0; chain < this.hierarchy.getChainsNumber(); ++chain) {
+					for(int side = 0; side < 2; ++side) {
+						int end = this.hierarchy.getChainEnd(chain, side);
+						this.previousEndsCosts[2 * chain + side] = RoutingTable.this.costs[offset + end];
+						this.previousEndsInChains[2 * chain + side] = isInChain(offset, chain, side);
+					}
+				}
+
+				if(this.dirtyNodes == null) {
+					search(offset, typeIndex, heap);
+				}
+				else {
+					repair(offset, typeIndex, heap);
+				}
+				propagate(offset, heap);
+
+				for(int chain = 0; chain < this.hierarchy.getChainsNumber(); ++chain) {
+					if(this.dirtyChains == null || this.dirtyChains[chain] || endsChanged(offset, chain)) {
+						sweep(offset, typeIndex, chain);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Start the search of the routes of all the core nodes.
+		 *
+		 * @param offset    the offset of the wanted station type in the arrays
+		 * @param typeIndex the wanted station type ordinal
+		 * @param heap      the heap of the core nodes to propagate
+		 */
+		private void search(int offset, int typeIndex, @Nonnull IndexedMinHeap heap) {
+			for(int i = 0; i < this.hierarchy.getCoreNodesNumber(); ++i) {
+				int node = this.hierarchy.getCoreNode(i);
+				if(RoutingTable.this.graph.getType(node) == typeIndex) {
+					RoutingTable.this.costs[offset + node] = 0;
+					heap.push(node, 0);
+				}
+			}
+			for(int chain = 0; chain < this.hierarchy.getChainsNumber(); ++chain) {
+				for(int side = 0; side < 2; ++side) {
+					leaveChain(offset, typeIndex, chain, side, heap);
+				}
+			}
+		}
+
+		/**
+		 * Start the repair of the routes of the core nodes.<p>
+		 * The core nodes which are dirty or whose route go through a dirty node or chain are invalidated, with all
+		 * the core nodes whose route go through an invalidated node. Invalidated nodes restart from their valid
+		 * neighbours, and the ends of the dirty chains are given the routes through the chain.
+		 *
+		 * @param offset    the offset of the wanted station type in the arrays
+		 * @param typeIndex the wanted station type ordinal
+		 * @param heap      the heap of the core nodes to propagate
+		 */
+		private void repair(int offset, int typeIndex, @Nonnull IndexedMinHeap heap) {
+			int invalidatedNumber = 0;
+			for(int i = 0; i < this.hierarchy.getCoreNodesNumber(); ++i) {
+				int node = this.hierarchy.getCoreNode(i);
+				int next = RoutingTable.this.nextNodes[offset + node];
+				if(this.dirtyNodes[node] || (next != NO_NODE && (this.dirtyNodes[next]
+				  || (this.hierarchy.getChain(next) >= 0 && this.dirtyChains[this.hierarchy.getChain(next)])))) {
+					this.invalidated[invalidatedNumber++] = node;
+					invalidate(offset, typeIndex, node);
+				}
+			}
+			for(int i = 0; i < invalidatedNumber; ++i) {
+				int current = this.invalidated[i];
+				for(int edge = this.hierarchy.getFirstCoreEdge(current);
+				    edge < this.hierarchy.getLastCoreEdge(current);
+				    ++edge) {
+					int target = this.hierarchy.getCoreTarget(edge);
+					if(RoutingTable.this.nextNodes[offset + target] == this.hierarchy.getCoreReturn(edge)) {
+						this.invalidated[invalidatedNumber++] = target;
+						invalidate(offset, typeIndex, target);
+					}
+				}
+			}
+
+			for(int i = 0; i < invalidatedNumber; ++i) {
+				int node = this.invalidated[i];
+				if(RoutingTable.this.costs[offset + node] == 0) {
+					heap.push(node, 0);
+				}
+				restart(offset, typeIndex, node, -1, heap);
+			}
+			for(int chain = 0; chain < this.hierarchy.getChainsNumber(); ++chain) {
+				if(this.dirtyChains[chain]) {
+					restart(offset, typeIndex, this.hierarchy.getChainEnd(chain, 0), chain, heap);
+					restart(offset, typeIndex, this.hierarchy.getChainEnd(chain, 1), chain, heap);
+				}
+			}
+		}
+
+		private void invalidate(int offset, int typeIndex, int node) {
+			RoutingTable.this.nextNodes[offset + node] = NO_NODE;
+			RoutingTable.this.costs[offset + node] = (RoutingTable.this.graph.getType(node) == typeIndex) ?
+			  0 : Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * Give to a core node the cheapest route through its core edges and the chains it ends.
+		 *
+		 * @param offset    the offset of the wanted station type in the arrays
+		 * @param typeIndex the wanted station type ordinal
+		 * @param node      the core node
+		 * @param chain     the only chain to use, or -1 to use all the core edges
+		 * @param heap      the heap of the core nodes to propagate
+		 */
+		private void restart(int offset, int typeIndex, int node, int chain, @Nonnull IndexedMinHeap heap) {
+			for(int edge = this.hierarchy.getFirstCoreEdge(node); edge < this.hierarchy.getLastCoreEdge(node); ++edge) {
+				int chainSide = this.hierarchy.getCoreChain(edge);
+				if(chain >= 0 && chainSide / 2 != chain) {
+					continue;
+				}
+				int target = this.hierarchy.getCoreTarget(edge);
+				reach(offset,
+				  node,
+				  this.hierarchy.getCoreHop(edge),
+				  RoutingTable.this.costs[offset + target] + this.hierarchy.getCoreCost(edge),
+				  heap);
+				if(chainSide >= 0) {
+					leaveChain(offset, typeIndex, chainSide / 2, chainSide % 2, heap);
+				}
+			}
+		}
+
+		/**
+		 * Propagate the costs from the core nodes in the heap until the heap is empty.
+		 *
+		 * @param offset the offset of the wanted station type in the arrays
+		 * @param heap   the heap of the core nodes to propagate
+		 */
+		private void propagate(int offset, @Nonnull IndexedMinHeap heap) {
+			while(!heap.isEmpty()) {
+				int current = heap.poll();
+				for(int edge = this.hierarchy.getFirstCoreEdge(current);
+				    edge < this.hierarchy.getLastCoreEdge(current);
+				    ++edge) {
+					reach(offset,
+					  this.hierarchy.getCoreTarget(edge),
+					  this.hierarchy.getCoreReturn(edge),
+					  RoutingTable.this.costs[offset + current] + this.hierarchy.getCoreCost(edge),
+					  heap);
+				}
+			}
+		}
+
+		/**
+		 * Go from a core node through a next node if it is cheaper.
+		 *
+		 * @param offset the offset of the wanted station type in the arrays
+		 * @param node   the core node
+		 * @param next   the next node
+		 * @param cost   the cost of the route through the next node
+		 * @param heap   the heap of the core nodes to propagate
+		 */
+		private void reach(int offset, int node, int next, double cost, @Nonnull IndexedMinHeap heap) {
+			if(cost < RoutingTable.this.costs[offset + node]) {
+				RoutingTable.this.costs[offset + node] = cost;
+				RoutingTable.this.nextNodes[offset + node] = next;
+				heap.push(node, cost);
+			}
+		}
+
+		/**
+		 * Check if the route of an end of a chain goes in the chain.
+		 *
+		 * @param offset the offset of the wanted station type in the arrays
+		 * @param chain  the chain
+		 * @param side   the side of the end
+		 * @return true if the route of the end goes in the chain, false otherwise
+		 */
+		private boolean isInChain(int offset, int chain, int side) {
+			return RoutingTable.this.nextNodes[offset + this.hierarchy.getChainEnd(chain, side)]
+			  == this.hierarchy.getChainNode(platform(chain, side));
+		}
+
+		/**
+		 * Gets the platform of a chain next to one of its ends.
+		 *
+		 * @param chain the chain
+		 * @param side  the side of the end
+		 * @return the index of the platform
+		 */
+		private int platform(int chain, int side) {
+			return (side == 0) ? this.hierarchy.getChainFirst(chain) : this.hierarchy.getChainLast(chain) - 1;
+		}
+
+		private boolean endsChanged(int offset, int chain) {
+			for(int side = 0; side < 2; ++side) {
+				int end = this.hierarchy.getChainEnd(chain, side);
+				if(this.previousEndsCosts[2 * chain + side] != RoutingTable.this.costs[offset + end]
+				  || this.previousEndsInChains[2 * chain + side] != isInChain(offset, chain, side)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Get the cost of leaving the train at a chain platform.
+		 *
+		 * @param typeIndex the wanted station type ordinal
+		 * @param index     the index of the chain platform
+		 * @return the cost, infinite if the station is not of the wanted type
+		 */
+		private double leaveCost(int typeIndex, int index) {
+			int stationNode = RoutingTable.this.graph.getStationNode(this.hierarchy.getChainNode(index));
+			return (RoutingTable.this.graph.getType(stationNode) == typeIndex) ?
+			  this.hierarchy.getChainTransfer(index) : Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * Give to an end of a chain its cheapest route leaving the train at a station of the chain.
+		 *
+		 * @param offset    the offset of the wanted station type in the arrays
+		 * @param typeIndex the wanted station type ordinal
+		 * @param chain     the chain
+		 * @param side      the side of the end
+		 * @param heap      the heap of the core nodes to propagate
+		 */
+		private void leaveChain(int offset, int typeIndex, int chain, int side, @Nonnull IndexedMinHeap heap) {
+			int first = this.hierarchy.getChainFirst(chain);
+			int last = this.hierarchy.getChainLast(chain);
+			double ride = 0;
+			double cost = Double.POSITIVE_INFINITY;
+			if(side == 0) {
+				for(int i = first; i < last; ++i) {
+					ride += this.hierarchy.getChainRide(chain, i);
+					cost = Math.min(cost, ride + leaveCost(typeIndex, i));
+				}
+			}
+			else {
+				for(int i = last - 1; i >= first; --i) {
+					ride += this.hierarchy.getChainRide(chain, i + 1);
+					cost = Math.min(cost, ride + leaveCost(typeIndex, i));
+				}
+			}
+			reach(offset,
+			  this.hierarchy.getChainEnd(chain, side),
+			  this.hierarchy.getChainNode(platform(chain, side)),
+			  cost,
+			  heap);
+		}
+
+		/**
+		 * Compute the routes of the platforms and stations of a chain from the routes of its ends.
+		 *
+		 * @param offset    the offset of the wanted station type in the arrays
+		 * @param typeIndex the wanted station type ordinal
+		 * @param chain     the chain
+		 */
+		private void sweep(int offset, int typeIndex, int chain) {
+			int first = this.hierarchy.getChainFirst(chain);
+			int last = this.hierarchy.getChainLast(chain);
+			int length = last - first;
+			int firstEnd = this.hierarchy.getChainEnd(chain, 0);
+			int secondEnd = this.hierarchy.getChainEnd(chain, 1);
+
+			// an end whose route goes in the chain can't be used by the chain, it would be a round trip
+			this.fromFirstEnd[0] = isInChain(offset, chain, 0) ?
+			  Double.POSITIVE_INFINITY : RoutingTable.this.costs[offset + firstEnd];
+			for(int i = 1; i <= length; ++i) {
+				this.fromFirstEnd[i] = Math.min(leaveCost(typeIndex, first + i - 1),
+				  this.fromFirstEnd[i - 1] + this.hierarchy.getChainRide(chain, first + i - 1));
+			}
+			this.fromSecondEnd[length + 1] = isInChain(offset, chain, 1) ?
+			  Double.POSITIVE_INFINITY : RoutingTable.this.costs[offset + secondEnd];
+			for(int i = length; i >= 1; --i) {
+				this.fromSecondEnd[i] = Math.min(leaveCost(typeIndex, first + i - 1),
+				  this.fromSecondEnd[i + 1] + this.hierarchy.getChainRide(chain, first + i));
+			}
+
+			for(int i = 1; i <= length; ++i) {
+				int node = this.hierarchy.getChainNode(first + i - 1);
+				int stationNode = RoutingTable.this.graph.getStationNode(node);
+				double leaveCost = leaveCost(typeIndex, first + i - 1);
+				double backwardCost = this.fromFirstEnd[i - 1] + this.hierarchy.getChainRide(chain, first + i - 1);
+				double forwardCost = this.fromSecondEnd[i + 1] + this.hierarchy.getChainRide(chain, first + i);
+				int next;
+				double cost;
+				if(leaveCost <= forwardCost && leaveCost <= backwardCost) {
+					next = stationNode;
+					cost = leaveCost;
+				}
+				else if(forwardCost <= backwardCost) {
+					next = (i == length) ? secondEnd : this.hierarchy.getChainNode(first + i);
+					cost = forwardCost;
+				}
+				else {
+					next = (i == 1) ? firstEnd : this.hierarchy.getChainNode(first + i - 2);
+					cost = backwardCost;
+				}
+				if(Double.isInfinite(cost)) {
+					next = NO_NODE;
+				}
+				RoutingTable.this.nextNodes[offset + node] = next;
+				RoutingTable.this.costs[offset + node] = cost;
+
+				if(this.hierarchy.getChain(stationNode) == chain) {
+					boolean wanted = RoutingTable.this.graph.getType(stationNode) == typeIndex;
+					double stationCost = wanted ? 0 : this.hierarchy.getChainTransfer(first + i - 1) + cost;
+					RoutingTable.this.nextNodes[offset + stationNode] = (wanted || Double.isInfinite(stationCost)) ?
+					  NO_NODE : node;
+					RoutingTable.this.costs[offset + stationNode] = stationCost;
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Gets the version of the table, the generation of the network the table was computed for.
+	 *
+	 * @return the version
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Gets the station graph used to compute the table.
+	 *
+	 * @return the station graph
+	 */
+	@Nonnull
+	public StationGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Gets the next node to go to from a node to reach the cheapest station of a type.
+	 *
+	 * @param node      the node
+	 * @param typeIndex the wanted station type ordinal
+	 * @return the next node, or -1 if there is no route
+	 */
+	public int getNextNode(int node, int typeIndex) {
+		return this.nextNodes[typeIndex * this.graph.getNodesNumber() + node];
+	}
+
+	/**
+	 * Gets the next node to go to from a station node to reach the cheapest station of a type.
+	 *
+	 * @param station     the station
+	 * @param stationType the wanted station type
+	 * @return the next node, or -1 if there is no route
+	 */
+	public int getNextNode(@Nonnull Station station, @Nonnull StationType stationType) {
+		int node = this.graph.getNode(station);
+		return (node < 0) ? NO_NODE : getNextNode(node, stationType.ordinal());
+	}
+
+	/**
+	 * Gets the next node to go to from a platform node to reach the cheapest station of a type.
+	 *
+	 * @param station     the station
+	 * @param line        the line of the platform
+	 * @param stationType the wanted station type
+	 * @return the next node, or -1 if there is no route
+	 */
+	public int getNextNode(@Nonnull Station station, @Nonnull Line line, @Nonnull StationType stationType) {
+		int node = this.graph.getPlatformNode(station, line);
+		return (node < 0) ? NO_NODE : getNextNode(node, stationType.ordinal());
+	}
+
+	/**
+	 * Gets the next station to go to from a station to reach the cheapest station of a type.
+	 *
+	 * @param station     the station
+	 * @param stationType the wanted station type
+	 * @return the next station, or null if there is no route
+	 */
+	@Nullable
+	public Station getNextStation(@Nonnull Station station, @Nonnull StationType stationType) {
+		int node = this.graph.getNode(station);
+		if(node < 0) {
+			return null;
+		}
+		int typeIndex = stationType.ordinal();
+		for(int i = 0; i < this.graph.getNodesNumber(); ++i) {
+			node = getNextNode(node, typeIndex);
+			if(node == NO_NODE) {
+				return null;
+			}
+			if(this.graph.getStation(node) != station) {
+				return this.graph.getStation(node);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the cost of the route between a station and the cheapest station of a type.
+	 *
+	 * @param station     the station
+	 * @param stationType the wanted station type
+	 * @return the cost, or {@link Double#POSITIVE_INFINITY} if there is no route
+	 */
+	public double getCost(@Nonnull Station station, @Nonnull StationType stationType) {
+		int node = this.graph.getNode(station);
+		if(node < 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return this.costs[stationType.ordinal() * this.graph.getNodesNumber() + node];
+	}
+
+	/**
+	 * Gets the path from a station to the cheapest station of a type.<p>
+	 * The first station is the next station and the last one is the destination, the station itself is not in
+	 * the path.
+	 *
+	 * @param station     the station
+	 * @param stationType the wanted station type
+	 * @return the path, or null if there is no route
+	 */
+	@Nullable
+	public List<Station> getPath(@Nonnull Station station, @Nonnull StationType stationType) {
+		int node = this.graph.getNode(station);
+		if(node < 0) {
+			return null;
+		}
+		int typeIndex = stationType.ordinal();
+		List<Station> path = new ArrayList<>();
+		Station lastStation = station;
+		int current = getNextNode(node, typeIndex);
+		for(int i = 0; current != NO_NODE && i < this.graph.getNodesNumber(); ++i) {
+			if(this.graph.getStation(current) != lastStation) {
+				lastStation = this.graph.getStation(current);
+				path.add(lastStation);
+			}
+			if(this.graph.getType(current) == typeIndex) {
+				return path;
+			}
+			current = getNextNode(current, typeIndex);
+		}
+		return null;
+	}
+
+}
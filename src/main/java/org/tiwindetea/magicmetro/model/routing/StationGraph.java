@@ -0,0 +1,466 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import org.tiwindetea.magicmetro.model.Station;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.lines.Connection;
+import org.tiwindetea.magicmetro.model.lines.Line;
+import org.tiwindetea.magicmetro.model.lines.Section;
+import org.tiwindetea.magicmetro.model.lines.SubSection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact and immutable graph of the stations linked by sections.<p>
+ * Each station has a node for the passengers waiting in the station and a platform node for each line serving the
+ * station, for the passengers in a train of the line stopped at the station. Station and platform nodes are linked
+ * by transfer edges, platform nodes of the same line are linked by ride edges. The edges are weighted by a
+ * {@link RouteCostFunction}, so a route pays for each train taken.<p>
+ * Nodes are given dense indices (the nodes of a station are contiguous, the first one being the station node
+ * followed by the platform nodes) and the edges are stored in primitive arrays (compressed sparse rows), so the
+ * graph can be walked without any allocation:
+ * <pre>
+ * for(int edge = graph.getFirstEdge(node); edge &lt; graph.getLastEdge(node); ++edge) {
+ *     int neighbour = graph.getTarget(edge);
+ *     double cost = graph.getCost(edge);
+ * }
+ * </pre>
+ * Edges are symmetric, the cost from a node to a neighbour is the cost from the neighbour to the node.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class StationGraph {
+
+	private final Station[] stations;
+	private final Line[] lines;
+	private final Map<Station, Integer> indices; // station index, not node index
+	private final Map<Line, Integer> linesIndices;
+	private final int[] stationsNodes; // the nodes of the station i are in [stationsNodes[i], stationsNodes[i + 1])
+	private final int[] nodesStations; // station index of each node
+	private final int[] nodesLines; // line index of each node, -1 for station nodes
+	private final int[] types; // station type ordinal for station nodes, -1 for platform nodes
+	private final int[] edgesOffsets; // edges of the node i are in [edgesOffsets[i], edgesOffsets[i + 1])
+	private final int[] edgesTargets;
+	private final double[] edgesCosts;
+
+	/**
+	 * Instantiates a new StationGraph from the stations and their connections.
+	 *
+	 * @param stations      the stations of the map
+	 * @param lines         the lines of the map
+	 * @param trainsNumbers the number of trains on each line, lines without value have no train
+	 * @param costFunction  the cost function
+	 */
+	public StationGraph(@Nonnull List<Station> stations,
+	                    @Nonnull List<Line> lines,
+	                    @Nonnull Map<Line, Integer> trainsNumbers,
+	                    @Nonnull RouteCostFunction costFunction) {
+		this.stations = stations.toArray(new Station[stations.size()]);
+		this.indices = new HashMap<>(2 * this.stations.length);
+		for(int i = 0; i < this.stations.length; ++i) {
+			this.indices.put(this.stations[i], i);
+		}
+		this.lines = lines.toArray(new Line[lines.size()]);
+		this.linesIndices = new HashMap<>(2 * this.lines.length);
+		for(int i = 0; i < this.lines.length; ++i) {
+			this.linesIndices.put(this.lines[i], i);
+		}
+
+		// lines serving each station, sorted by index
+		int[][] servingLines = new int[this.stations.length][];
+		this.stationsNodes = new int[this.stations.length + 1];
+		for(int i = 0; i < this.stations.length; ++i) {
+			servingLines[i] = servingLines(this.stations[i]);
+			this.stationsNodes[i + 1] = this.stationsNodes[i] + 1 + servingLines[i].length;
+		}
+
+		int nodesNumber = this.stationsNodes[this.stations.length];
+		this.nodesStations = new int[nodesNumber];
+		this.nodesLines = new int[nodesNumber];
+		this.types = new int[nodesNumber];
+		double[] transferCosts = new double[nodesNumber]; // for platform nodes, infinite for station nodes
+		for(int i = 0; i < this.stations.length; ++i) {
+			int node = this.stationsNodes[i];
+			this.nodesStations[node] = i;
+			this.nodesLines[node] = -1;
+			this.types[node] = this.stations[i].getType().ordinal();
+			transferCosts[node] = Double.POSITIVE_INFINITY;
+			for(int line : servingLines[i]) {
+				++node;
+				Integer trainsNumber = trainsNumbers.get(this.lines[line]);
+				this.nodesStations[node] = i;
+				this.nodesLines[node] = line;
+				this.types[node] = -1;
+				transferCosts[node] = costFunction.getTransferCost(this.stations[i],
+				  this.lines[line],
+				  (trainsNumber == null) ? 0 : trainsNumber);
+			}
+		}
+
+		this.edgesOffsets = new int[nodesNumber + 1];
+		for(int i = 0; i < nodesNumber; ++i) {
+			this.edgesOffsets[i + 1] = this.edgesOffsets[i] + addEdges(i, -1, transferCosts, costFunction);
+		}
+		this.edgesTargets = new int[this.edgesOffsets[nodesNumber]];
+		this.edgesCosts = new double[this.edgesTargets.length];
+		for(int i = 0; i < nodesNumber; ++i) {
+			addEdges(i, this.edgesOffsets[i], transferCosts, costFunction);
+		}
+	}
+
+	@Nonnull
+	private int[] servingLines(@Nonnull Station station) {
+		int[] servingLines = new int[2 * station.getConnections().size()];
+		int servingLinesNumber = 0;
+		for(Connection connection : station.getConnections()) {
+			for(int line : new int[]{lineIndex(connection.getLeftSubSection()),
+			  lineIndex(connection.getRightSubSection())}) {
+				if(line >= 0) {
+					servingLines[servingLinesNumber++] = line;
+				}
+			}
+		}
+		Arrays.sort(servingLines, 0, servingLinesNumber);
+		int distinctLinesNumber = 0;
+		for(int i = 0; i < servingLinesNumber; ++i) {
+			if(distinctLinesNumber == 0 || servingLines[distinctLinesNumber - 1] != servingLines[i]) {
+				servingLines[distinctLinesNumber++] = servingLines[i];
+			}
+		}
+		return Arrays.copyOf(servingLines, distinctLinesNumber);
+	}
+
+	private int lineIndex(@Nullable SubSection subSection) {
+		if(subSection == null || subSection.getSection() == null || subSection.getSection().getLine() == null) {
+			return -1;
+		}
+		Integer index = this.linesIndices.get(subSection.getSection().getLine());
+		return (index == null) ? -1 : index;
+	}
+
+	/**
+	 * Gets the platform node of a station for a line.
+	 *
+	 * @param station the station index
+	 * @param line    the line index
+	 * @return the platform node, or -1 if the line doesn't serve the station
+	 */
+	private int platformNode(int station, int line) {
+		for(int node = this.stationsNodes[station] + 1; node < this.stationsNodes[station + 1]; ++node) {
+			if(this.nodesLines[node] == line) {
+				return node;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Add the edges of a node to the edges arrays.
+	 *
+	 * @param node          the node
+	 * @param offset        the index of the first edge of the node, or -1 to only count the edges
+	 * @param transferCosts the transfer costs
+	 * @param costFunction  the cost function
+	 * @return the number of edges of the node
+	 */
+	private int addEdges(int node, int offset, @Nonnull double[] transferCosts, @Nonnull RouteCostFunction costFunction) {
+		int station = this.nodesStations[node];
+		int line = this.nodesLines[node];
+		int stationNode = this.stationsNodes[station];
+		int edges = 0;
+		if(line < 0) {
+			for(int platform = stationNode + 1; platform < this.stationsNodes[station + 1]; ++platform) {
+				if(addEdge(offset, edges, platform, transferCosts[platform])) {
+					++edges;
+				}
+			}
+			return edges;
+		}
+
+		if(addEdge(offset, edges, stationNode, transferCosts[node])) {
+			++edges;
+		}
+		for(Connection connection : this.stations[station].getConnections()) {
+			if(addRideEdge(offset, edges, line, connection, connection.getLeftSubSection(), costFunction)) {
+				++edges;
+			}
+			if(connection.getRightSubSection() != connection.getLeftSubSection()
+			  && addRideEdge(offset, edges, line, connection, connection.getRightSubSection(), costFunction)) {
+				++edges;
+			}
+		}
+		return edges;
+	}
+
+	private boolean addRideEdge(int offset,
+	                            int edges,
+	                            int line,
+	                            @Nonnull Connection connection,
+	                            @Nullable SubSection subSection,
+	                            @Nonnull RouteCostFunction costFunction) {
+		if(lineIndex(subSection) != line) {
+			return false;
+		}
+		Section section = subSection.getSection();
+		Connection otherConnection = section.getOtherStationConnection(connection);
+		if(otherConnection == null || otherConnection.getStation() == null) {
+			return false;
+		}
+		Integer target = this.indices.get(otherConnection.getStation());
+		if(target == null) {
+			return false;
+		}
+		int targetNode = platformNode(target, line);
+		return targetNode >= 0 && addEdge(offset, edges, targetNode, costFunction.getRideCost(section));
+	}
+
+	private boolean addEdge(int offset, int edges, int target, double cost) {
+		if(Double.isInfinite(cost) || Double.isNaN(cost)) {
+			return false;
+		}
+		if(offset >= 0) {
+			this.edgesTargets[offset + edges] = target;
+			this.edgesCosts[offset + edges] = cost;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of stations.
+	 *
+	 * @return the number of stations
+	 */
+	public int getStationsNumber() {
+		return this.stations.length;
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodesNumber() {
+		return this.types.length;
+	}
+
+	/**
+	 * Gets the number of nodes of a station, the station node and a platform node for each line serving the
+	 * station.
+	 *
+	 * @param station the station
+	 * @return the number of nodes of the station, 0 if the station is not in the graph
+	 */
+	public int getNodesNumber(@Nonnull Station station) {
+		Integer index = this.indices.get(station);
+		return (index == null) ? 0 : this.stationsNodes[index + 1] - this.stationsNodes[index];
+	}
+
+	/**
+	 * Gets the number of edges, each section and each transfer is counted once for each direction.
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgesNumber() {
+		return this.edgesTargets.length;
+	}
+
+	/**
+	 * Gets the station node of a station.
+	 *
+	 * @param station the station
+	 * @return the station node, or -1 if the station is not in the graph
+	 */
+	public int getNode(@Nonnull Station station) {
+		Integer index = this.indices.get(station);
+		return (index == null) ? -1 : this.stationsNodes[index];
+	}
+
+	/**
+	 * Gets the platform node of a station for a line.
+	 *
+	 * @param station the station
+	 * @param line    the line
+	 * @return the platform node, or -1 if the station or the line is not in the graph or if the line doesn't serve
+	 * the station
+	 */
+	public int getPlatformNode(@Nonnull Station station, @Nonnull Line line) {
+		Integer index = this.indices.get(station);
+		Integer lineIndex = this.linesIndices.get(line);
+		return (index == null || lineIndex == null) ? -1 : platformNode(index, lineIndex);
+	}
+
+	/**
+	 * Gets the station node of the station of a node.
+	 *
+	 * @param node the node
+	 * @return the station node
+	 */
+	public int getStationNode(int node) {
+		return this.stationsNodes[this.nodesStations[node]];
+	}
+
+	/**
+	 * Gets the station of a node.
+	 *
+	 * @param node the node
+	 * @return the station
+	 */
+	@Nonnull
+	public Station getStation(int node) {
+		return this.stations[this.nodesStations[node]];
+	}
+
+	/**
+	 * Gets the line of a platform node.
+	 *
+	 * @param node the node
+	 * @return the line, or null for a station node
+	 */
+	@Nullable
+	public Line getLine(int node) {
+		return (this.nodesLines[node] < 0) ? null : this.lines[this.nodesLines[node]];
+	}
+
+	/**
+	 * Gets the node of a graph matching a node of this graph, the node of the same station and line.
+	 *
+	 * @param node  the node
+	 * @param graph the other graph
+	 * @return the node of the other graph, or -1 if the other graph has no such node
+	 */
+	public int getNodeIn(int node, @Nonnull StationGraph graph) {
+		Line line = getLine(node);
+		Station station = getStation(node);
+		return (line == null) ? graph.getNode(station) : graph.getPlatformNode(station, line);
+	}
+
+	/**
+	 * Gets the nodes of a graph matching all the nodes of this graph, the nodes of the same station and line.
+	 *
+	 * @param graph the other graph
+	 * @return the node of the other graph matching each node, -1 if the other graph has no such node
+	 */
+	@Nonnull
+	public int[] getNodesIn(@Nonnull StationGraph graph) {
+		int[] linesIndices = new int[this.lines.length];
+		for(int line = 0; line < this.lines.length; ++line) {
+			Integer lineIndex = graph.linesIndices.get(this.lines[line]);
+			linesIndices[line] = (lineIndex == null) ? -1 : lineIndex;
+		}
+		int[] nodes = new int[this.types.length];
+		for(int station = 0; station < this.stations.length; ++station) {
+			Integer index = graph.indices.get(this.stations[station]);
+			for(int node = this.stationsNodes[station]; node < this.stationsNodes[station + 1]; ++node) {
+				if(index == null) {
+					nodes[node] = -1;
+				}
+				else if(this.nodesLines[node] < 0) {
+					nodes[node] = graph.stationsNodes[index];
+				}
+				else {
+					int line = linesIndices[this.nodesLines[node]];
+					nodes[node] = (line < 0) ? -1 : graph.platformNode(index, line);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Gets the type ordinal of the station of a station node.
+	 *
+	 * @param node the node
+	 * @return the station type ordinal, or -1 for a platform node
+	 * @see StationType#ordinal()
+	 */
+	public int getType(int node) {
+		return this.types[node];
+	}
+
+	/**
+	 * Gets the first edge of a node.
+	 *
+	 * @param node the node
+	 * @return the first edge
+	 */
+	public int getFirstEdge(int node) {
+		return this.edgesOffsets[node];
+	}
+
+	/**
+	 * Gets the end of the edges of a node (exclusive).
+	 *
+	 * @param node the node
+	 * @return the edge following the last edge of the node
+	 */
+	public int getLastEdge(int node) {
+		return this.edgesOffsets[node + 1];
+	}
+
+	/**
+	 * Gets the node at the end of an edge.
+	 *
+	 * @param edge the edge
+	 * @return the node
+	 */
+	public int getTarget(int edge) {
+		return this.edgesTargets[edge];
+	}
+
+	/**
+	 * Gets the cost of an edge.
+	 *
+	 * @param edge the edge
+	 * @return the cost
+	 */
+	public double getCost(int edge) {
+		return this.edgesCosts[edge];
+	}
+
+	/**
+	 * Gets the cost of the cheapest edge between two nodes.
+	 *
+	 * @param from the first node
+	 * @param to   the second node
+	 * @return the cost, or {@link Double#POSITIVE_INFINITY} if the nodes are not neighbours
+	 */
+	public double getCost(int from, int to) {
+		double cost = Double.POSITIVE_INFINITY;
+		for(int edge = this.edgesOffsets[from]; edge < this.edgesOffsets[from + 1]; ++edge) {
+			if(this.edgesTargets[edge] == to && this.edgesCosts[edge] < cost) {
+				cost = this.edgesCosts[edge];
+			}
+		}
+		return cost;
+	}
+
+}
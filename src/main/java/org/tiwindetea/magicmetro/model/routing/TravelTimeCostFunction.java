@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.model.routing;
+
+import org.tiwindetea.magicmetro.model.Station;
+import org.tiwindetea.magicmetro.model.Train;
+import org.tiwindetea.magicmetro.model.TrainType;
+import org.tiwindetea.magicmetro.model.lines.Line;
+import org.tiwindetea.magicmetro.model.lines.Section;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Default route cost function, the cost of a route is its expected travel time as game ticks.<p>
+ * Riding a section takes its length divided by the trains speed plus a stop at a station, and taking a train
+ * takes half of the time between two trains of the line plus a transfer penalty. Lines without trains can't
+ * be used.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class TravelTimeCostFunction implements RouteCostFunction {
+
+	private static final double TRANSFER_PENALTY = 2 * Train.PASSENGER_MOVE_DELAY; // as game ticks
+
+	private final double trainsSpeed;
+
+	/**
+	 * Instantiates a new TravelTimeCostFunction for the normal trains.
+	 */
+	public TravelTimeCostFunction() {
+		this(TrainType.NORMAL.maxSpeed);
+	}
+
+	/**
+	 * Instantiates a new TravelTimeCostFunction.
+	 *
+	 * @param trainsSpeed the speed of the trains
+	 */
+	public TravelTimeCostFunction(double trainsSpeed) {
+		this.trainsSpeed = trainsSpeed;
+	}
+
+	@Override
+	public double getRideCost(@Nonnull Section section) {
+		return section.getLength() / this.trainsSpeed + Train.PASSENGER_MOVE_DELAY;
+	}
+
+	@Override
+	public double getTransferCost(@Nonnull Station station, @Nonnull Line line, int trainsNumber) {
+		if(trainsNumber <= 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		// trains go back and forth on the line
+		double roundTripTime = 2 * line.getLength() / this.trainsSpeed;
+		double waitTime = roundTripTime / trainsNumber / 2;
+		return (waitTime + TRANSFER_PENALTY) / 2;
+	}
+
+}
@@ -24,7 +24,6 @@
 
 package org.tiwindetea.magicmetro.view;
 
-import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.scene.Parent;
 import javafx.scene.control.ProgressIndicator;
@@ -34,6 +33,7 @@ import javafx.scene.layout.TilePane;
 import javafx.scene.shape.Shape;
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
 import org.tiwindetea.magicmetro.global.IdGenerator;
+import org.tiwindetea.magicmetro.global.util.Utils;
 import org.tiwindetea.magicmetro.model.StationType;
 
 import javax.annotation.Nonnull;
@@ -57,11 +57,17 @@ public class ConcreteStationView extends Parent implements StationView {
 	private final Shape sprite;
 	private final List<PassengerView> passengers = new LinkedList<>();
 	private final PassengerViewFactory passengerViewFactory;
+	private final ViewCommandQueue viewCommandQueue;
 	private final TilePane tilePane = new TilePane();
 	private final ProgressIndicator progressIndicator = new ProgressIndicator();
 
 	private StationMouseListener stationMouseListener = null;
 
+	// warning, accessed by the FX thread only
+	private boolean warned = false;
+	private long warnStart = 0;
+	private long warnEnd = 0;
+
 	/**
 	 * Instantiates a new ConcreteStationView.
 	 *
@@ -69,12 +75,15 @@ public class ConcreteStationView extends Parent implements StationView {
 	 * @param spriteWidth          the sprite width
 	 * @param spriteHeight         the sprite height
 	 * @param passengerViewFactory the passenger view factory
+	 * @param viewCommandQueue     the queue of the commands run by the FX thread
 	 */
 	public ConcreteStationView(Shape sprite,
 	                           int spriteWidth,
 	                           int spriteHeight,
-	                           PassengerViewFactory passengerViewFactory) {
+	                           PassengerViewFactory passengerViewFactory,
+	                           ViewCommandQueue viewCommandQueue) {
 		this.sprite = sprite;
+		this.viewCommandQueue = viewCommandQueue;
 		this.getChildren().add(this.sprite);
 		this.sprite.setTranslateX(0);
 		this.sprite.setTranslateY(0);
@@ -140,7 +149,7 @@ public class ConcreteStationView extends Parent implements StationView {
 		PassengerView passenger = new PassengerView(wantedStation,
 		  this.passengerViewFactory.newPassengerView(wantedStation));
 		this.passengers.add(passenger);
-		Platform.runLater(() -> this.tilePane.getChildren().add(passenger));
+		this.viewCommandQueue.post(() -> this.tilePane.getChildren().add(passenger));
 	}
 
 	@Override
@@ -148,7 +157,7 @@ public class ConcreteStationView extends Parent implements StationView {
 		for(PassengerView passenger : this.passengers) {
 			if(passenger.getWantedStation() == wantedStation) {
 				this.passengers.remove(passenger);
-				Platform.runLater(() -> this.tilePane.getChildren().remove(passenger));
+				this.viewCommandQueue.post(() -> this.tilePane.getChildren().remove(passenger));
 				break;
 			}
 		}
@@ -156,13 +165,19 @@ public class ConcreteStationView extends Parent implements StationView {
 
 	@Override
 	public void makeBigger() {
-		this.sprite.setScaleX(1.5);
-		this.sprite.setScaleY(1.5);
+		this.viewCommandQueue.post(() -> {
+			this.sprite.setScaleX(1.5);
+			this.sprite.setScaleY(1.5);
+		});
 	}
 
 	@Override
-	public void warn() {
-		Platform.runLater(() -> {
+	public void warn(long warnStart, long warnEnd) {
+		// the last warning state replaces the pending one
+		this.viewCommandQueue.post(this, () -> {
+			this.warned = true;
+			this.warnStart = warnStart;
+			this.warnEnd = warnEnd;
 			this.progressIndicator.setProgress(0);
 			this.progressIndicator.setVisible(true);
 		});
@@ -170,12 +185,22 @@ public class ConcreteStationView extends Parent implements StationView {
 
 	@Override
 	public void unWard() {
-		Platform.runLater(() -> this.progressIndicator.setVisible(false));
+		this.viewCommandQueue.post(this, () -> {
+			this.warned = false;
+			this.progressIndicator.setVisible(false);
+		});
 	}
 
-	@Override
-	public void setWarnValue(double percentage) {
-		Platform.runLater(() -> this.progressIndicator.setProgress(percentage));
+	/**
+	 * Update the warning progress at a time of the game. Must be called by the FX thread.
+	 *
+	 * @param time the time as millis
+	 */
+	public void animate(long time) {
+		if(this.warned && (this.warnEnd > this.warnStart)) {
+			this.progressIndicator.setProgress(Math.min(Math.max(
+			  Utils.map(time, this.warnStart, this.warnEnd, 0, 1), 0), 1));
+		}
 	}
 
 	/**
@@ -24,11 +24,12 @@
 
 package org.tiwindetea.magicmetro.view;
 
-import javafx.application.Platform;
 import javafx.scene.Parent;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Shape;
 import org.arakhne.afc.math.geometry.d2.d.Point2d;
 import org.tiwindetea.magicmetro.global.IdGenerator;
+import org.tiwindetea.magicmetro.global.util.Utils;
 import org.tiwindetea.magicmetro.model.StationType;
 
 import javax.annotation.Nonnull;
@@ -50,6 +51,7 @@ public class ConcreteTrainView extends Parent implements TrainView {
 	private static final int MAX_PASSENGERS = 6;
 
 	private final MapView mapView;
+	private final ViewCommandQueue viewCommandQueue;
 
 	private final Shape sprite;
 	private final List<Point2d> passengersPositions;
@@ -59,6 +61,12 @@ public class ConcreteTrainView extends Parent implements TrainView {
 
 	private ConcreteLineView line = null;
 
+	// movement to the next connection, accessed by the FX thread only
+	private Point2d origin = null;
+	private Point2d destination = null;
+	private long departureTime = 0;
+	private long arrivalTime = 0;
+
 	/**
 	 * Instantiates a new Concrete train view.
 	 *
@@ -68,16 +76,19 @@ public class ConcreteTrainView extends Parent implements TrainView {
 	 * @param passengersPositions  the passengers positions
 	 * @param passengerViewFactory the PassengerView factory
 	 * @param mapView              the map view
+	 * @param viewCommandQueue     the queue of the commands run by the FX thread
 	 */
 	public ConcreteTrainView(Shape sprite,
 	                         int spriteWidth,
 	                         int spriteHeight,
 	                         List<Point2d> passengersPositions,
 	                         PassengerViewFactory passengerViewFactory,
-	                         MapView mapView) {
+	                         MapView mapView,
+	                         ViewCommandQueue viewCommandQueue) {
 		this.sprite = sprite;
 		this.mapView = mapView;
-		Platform.runLater(() -> {
+		this.viewCommandQueue = viewCommandQueue;
+		this.viewCommandQueue.post(() -> {
 			this.getChildren().add(this.sprite);
 			this.sprite.setTranslateX(0);
 			this.sprite.setTranslateY(0);
@@ -99,17 +110,52 @@ public class ConcreteTrainView extends Parent implements TrainView {
 
 	@Override
 	public void setRotation(double angle) {
-		Platform.runLater(() -> this.setRotate(angle));
+		this.viewCommandQueue.post(() -> this.setRotate(angle));
 	}
 
 	@Override
 	public void setPosition(@Nonnull Point2d position) {
-		Platform.runLater(() -> {
+		// replaces the pending movement, the train stays at this position
+		this.viewCommandQueue.post(this, () -> {
+			this.origin = null;
 			this.setTranslateX(position.getX());
 			this.setTranslateY(position.getY());
 		});
 	}
 
+	@Override
+	public void setMovement(@Nonnull Point2d origin,
+	                        long departureTime,
+	                        @Nonnull Point2d destination,
+	                        long arrivalTime) {
+		this.viewCommandQueue.post(this, () -> {
+			this.origin = origin;
+			this.destination = destination;
+			this.departureTime = departureTime;
+			this.arrivalTime = arrivalTime;
+			this.setRotate(Math.toDegrees(Math.atan2(destination.getY() - origin.getY(),
+			  destination.getX() - origin.getX())));
+		});
+	}
+
+	/**
+	 * Move the train to its position at a time of the game, interpolated between the departure and the arrival of
+	 * its movement. Must be called by the FX thread.
+	 *
+	 * @param time the time as millis
+	 */
+	public void animate(long time) {
+		if(this.origin == null) {
+			return;
+		}
+		double progress = 1;
+		if(this.arrivalTime > this.departureTime) {
+			progress = Math.min(Math.max(Utils.map(time, this.departureTime, this.arrivalTime, 0, 1), 0), 1);
+		}
+		this.setTranslateX(this.origin.getX() + progress * (this.destination.getX() - this.origin.getX()));
+		this.setTranslateY(this.origin.getY() + progress * (this.destination.getY() - this.origin.getY()));
+	}
+
 	@Override
 	public void addPassenger(@Nonnull StationType wantedStation) {
 		if(this.passengers.size() < MAX_PASSENGERS) {
@@ -121,7 +167,7 @@ public class ConcreteTrainView extends Parent implements TrainView {
 				PassengerView passenger = new PassengerView(this.passengersPositions.get(minIndex), wantedStation,
 				  this.passengerViewFactory.newPassengerView(wantedStation));
 				this.passengers.add(passenger);
-				Platform.runLater(() -> getChildren().add(passenger));
+				this.viewCommandQueue.post(() -> getChildren().add(passenger));
 			}
 		}
 	}
@@ -132,7 +178,7 @@ public class ConcreteTrainView extends Parent implements TrainView {
 			if(passenger.getWantedStation() == wantedStation) {
 				this.freePassengersPositionsIndex.add(this.passengersPositions.indexOf(passenger.getPosition()));
 				this.passengers.remove(passenger);
-				Platform.runLater(() -> getChildren().remove(passenger));
+				this.viewCommandQueue.post(() -> getChildren().remove(passenger));
 				break;
 			}
 		}
@@ -142,7 +188,8 @@ public class ConcreteTrainView extends Parent implements TrainView {
 	public void setLine(int lineId) {
 		this.line = this.mapView.getLineFromId(lineId);
 		if(this.line != null) {
-			Platform.runLater(() -> this.sprite.setFill(this.line.color));
+			Color color = this.line.color;
+			this.viewCommandQueue.post(() -> this.sprite.setFill(color));
 		}
 	}
 }
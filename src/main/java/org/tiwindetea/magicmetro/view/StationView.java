@@ -73,19 +73,15 @@ public interface StationView {
 	void makeBigger();
 
 	/**
-	 * Warn.
+	 * Warn, the view animates the warning from its start to its end.
+	 *
+	 * @param warnStart the time of the warning start as millis
+	 * @param warnEnd   the time of the warning end as millis
 	 */
-	void warn();
+	void warn(long warnStart, long warnEnd);
 
 	/**
 	 * Un ward.
 	 */
 	void unWard();
-
-	/**
-	 * Sets warn value.
-	 *
-	 * @param percentage the percentage
-	 */
-	void setWarnValue(double percentage);
 }
@@ -24,8 +24,11 @@
 
 package org.tiwindetea.magicmetro.view;
 
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
 import org.tiwindetea.magicmetro.model.Train;
 
+import javax.annotation.Nonnull;
+
 /**
  * View of a Train, control a graphical representation of a Train.
  *
@@ -42,4 +45,15 @@ public interface TrainView extends PassengerCarView {
 	 */
 	void setLine(int lineId);
 
+	/**
+	 * Sets the movement of the train to its next connection, the view interpolates the position and the rotation
+	 * of the train from the departure to the arrival.
+	 *
+	 * @param origin        the position at the departure
+	 * @param departureTime the time of the departure as millis
+	 * @param destination   the position at the arrival
+	 * @param arrivalTime   the time of the arrival as millis
+	 */
+	void setMovement(@Nonnull Point2d origin, long departureTime, @Nonnull Point2d destination, long arrivalTime);
+
 }
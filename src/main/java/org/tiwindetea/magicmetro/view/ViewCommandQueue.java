@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queue of the view commands sent by the model, run by the FX thread once per pulse.<p>
+ * Instead of a {@link javafx.application.Platform#runLater(Runnable)} per change, the commands are appended to a
+ * buffer swapped with an empty one at each pulse, so the lock is only taken for an append or a swap. A command
+ * posted with a key replaces the pending command of the same key: only the last movement of a train is run at the
+ * next pulse.
+ *
+ * @author Maxime PINARD
+ * @see ViewManager
+ * @since 0.1
+ */
+public class ViewCommandQueue {
+
+	private List<Runnable> commands = new ArrayList<>(); // null for the replaced commands
+	private List<Runnable> runCommands = new ArrayList<>(); // accessed by the FX thread only
+	private final Map<Object, Integer> keysIndexes = new HashMap<>(); // key to the index of its pending command
+
+	/**
+	 * Post a command, run at the next pulse after the commands posted before.
+	 *
+	 * @param command the command
+	 */
+	public synchronized void post(@Nonnull Runnable command) {
+		this.commands.add(command);
+	}
+
+	/**
+	 * Post a command replacing the pending command of the same key, run at the next pulse after the commands
+	 * posted before.
+	 *
+	 * @param key     the key
+	 * @param command the command
+	 */
+	public synchronized void post(@Nonnull Object key, @Nonnull Runnable command) {
+		Integer index = this.keysIndexes.put(key, this.commands.size());
+		if(index != null) {
+			this.commands.set(index, null);
+		}
+		this.commands.add(command);
+	}
+
+	/**
+	 * Run the pending commands in the order they were posted. Must be called by the FX thread.
+	 */
+	public void runCommands() {
+		synchronized(this) {
+			List<Runnable> pendingCommands = this.commands;
+			this.commands = this.runCommands;
+			this.runCommands = pendingCommands;
+			this.keysIndexes.clear();
+		}
+		for(Runnable command : this.runCommands) {
+			if(command != null) {
+				command.run();
+			}
+		}
+		this.runCommands.clear();
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view;
+
+import org.arakhne.afc.math.geometry.d2.d.MultiShape2d;
+import org.arakhne.afc.math.geometry.d2.d.Rectangle2d;
+import org.tiwindetea.magicmetro.global.scripts.ElementScript;
+import org.tiwindetea.magicmetro.global.util.Pair;
+import org.tiwindetea.magicmetro.model.GameManager;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.TrainType;
+
+import java.util.List;
+
+/**
+ * Factory of the views of a game, create the views of the model elements and display the map.<p>
+ * Implementations must not require a graphical environment to be created, the views are only
+ * used by the model through their interfaces.
+ *
+ * @author Maxime PINARD
+ * @see GameManager
+ * @see ViewManager
+ * @since 0.1
+ */
+public interface ViewFactory {
+
+	/**
+	 * Sets map size.
+	 *
+	 * @param width  the width
+	 * @param height the height
+	 */
+	void setMapSize(double width, double height);
+
+	/**
+	 * Sets water.
+	 *
+	 * @param water the water
+	 */
+	void setWater(MultiShape2d<Rectangle2d> water);
+
+	/**
+	 * Sets the time of the game, the simulation time that may differ from the time of the TimeManager.
+	 *
+	 * @param timeMillis the time as millis
+	 */
+	void setGameTime(long timeMillis);
+
+	/**
+	 * Create a train view.
+	 *
+	 * @param type the type
+	 * @return the train view
+	 */
+	TrainView createTrainView(TrainType type);
+
+	/**
+	 * Create a station view.
+	 *
+	 * @param type the type
+	 * @return the station view
+	 */
+	StationView createStationView(StationType type);
+
+	/**
+	 * Create a line view.
+	 *
+	 * @return the line view
+	 */
+	LineView createLineView();
+
+	/**
+	 * Create a passenger car view.
+	 *
+	 * @return the passenger car view
+	 */
+	PassengerCarView createPassengerCarView();
+
+	/**
+	 * Gets inventory view.
+	 *
+	 * @return the inventory view
+	 */
+	InventoryView getInventoryView();
+
+	/**
+	 * Ask element choice, the chosen element is added to the inventory with an InventoryElementAdditionEvent.
+	 *
+	 * @param elementScripts the element scripts
+	 */
+	void askElementChoice(List<Pair<ElementScript, Integer>> elementScripts);
+
+}
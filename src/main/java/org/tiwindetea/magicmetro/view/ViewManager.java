@@ -26,14 +26,17 @@ package org.tiwindetea.magicmetro.view;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
@@ -52,6 +55,7 @@ import org.arakhne.afc.math.geometry.d2.dfx.Rectangle2dfx;
 import org.tiwindetea.magicmetro.global.TimeManager;
 import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.GameExitEvent;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.timeevents.TimeFastForwardEvent;
 import org.tiwindetea.magicmetro.global.scripts.ElementScript;
 import org.tiwindetea.magicmetro.global.util.Pair;
 import org.tiwindetea.magicmetro.global.util.Utils;
@@ -60,6 +64,7 @@ import org.tiwindetea.magicmetro.model.TrainType;
 import org.tiwindetea.magicmetro.view.menus.MenuController;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -69,10 +74,11 @@ import java.util.List;
  * @author Maxime PINARD
  * @since 0.1
  */
-public class ViewManager implements MenuListener {
+public class ViewManager implements MenuListener, ViewFactory {
 
 	private static final Color BACKGROUND_COLOR = Color.LIGHTGRAY;
 	private static final Color MAP_BACKGROUND_COLOR = Color.WHITE;
+	private static final long MAX_EXTRAPOLATION_MILLIS = 100;
 
 	private AnchorPane mainAnchorPane = new AnchorPane();
 	private final Pane cPane = new Pane();
@@ -80,8 +86,14 @@ public class ViewManager implements MenuListener {
 	private final Skin skin = new Skin();
 	private final MapView mapView = new MapView(this.skin);
 	private final MultiShape2dfx<Rectangle2dfx> water = new MultiShape2dfx<>();
+	private final ViewCommandQueue viewCommandQueue = new ViewCommandQueue();
+
+	private final List<ConcreteTrainView> trainViews = new ArrayList<>(); // accessed by the FX thread only
+	private final List<ConcreteStationView> stationViews = new ArrayList<>(); // accessed by the FX thread only
 
 	private int currentLineNumber = 0;
+	private long gameTime = 0;
+	private long gameTimeUpdate = 0; // TimeManager time of the last game time update
 
 	private final MenuController menuController;
 
@@ -106,7 +118,17 @@ public class ViewManager implements MenuListener {
 		AnimationTimer animationTimer = new AnimationTimer() {
 			@Override
 			public void handle(long now) {
-				label.setText("Time: " + TimeManager.getInstance().getTimeAsSeconds());
+				ViewManager.this.viewCommandQueue.runCommands();
+				long time = getRenderTime();
+				label.setText("Time: " + Math.round(time / 1000.0));
+				if(ViewManager.this.mapView.isVisible()) {
+					for(ConcreteTrainView trainView : ViewManager.this.trainViews) {
+						trainView.animate(time);
+					}
+					for(ConcreteStationView stationView : ViewManager.this.stationViews) {
+						stationView.animate(time);
+					}
+				}
 			}
 		};
 		animationTimer.start();
@@ -141,6 +163,15 @@ public class ViewManager implements MenuListener {
 			  }
 		  });
 
+		ToggleButton fastForwardButton = new ToggleButton("Fast forward");
+		CheckBox hideMapCheckBox = new CheckBox("Hide map");
+		InvalidationListener mapVisibilityListener = observable -> this.mapView.setVisible(
+		  !(fastForwardButton.isSelected() && hideMapCheckBox.isSelected()));
+		fastForwardButton.selectedProperty().addListener(mapVisibilityListener);
+		hideMapCheckBox.selectedProperty().addListener(mapVisibilityListener);
+		fastForwardButton.selectedProperty().addListener((observable, oldValue, newValue) ->
+		  EventDispatcher.getInstance().fire(new TimeFastForwardEvent(newValue)));
+
 		VBox timeVBox = new VBox();
 		AnchorPane.setRightAnchor(timeVBox, 0d);
 		timeVBox.getChildren().add(label);
@@ -148,6 +179,8 @@ public class ViewManager implements MenuListener {
 		timeVBox.getChildren().add(pauseButton);
 		timeVBox.getChildren().add(slider);
 		timeVBox.getChildren().add(timeSpeedLabel);
+		timeVBox.getChildren().add(fastForwardButton);
+		timeVBox.getChildren().add(hideMapCheckBox);
 		timeVBox.setAlignment(Pos.CENTER_RIGHT);
 		timeVBox.setSpacing(5);
 		timeVBox.setPadding(new Insets(10));
@@ -192,32 +225,35 @@ public class ViewManager implements MenuListener {
 		});
 	}
 
+	@Override
+	public synchronized void setGameTime(long timeMillis) {
+		this.gameTime = timeMillis;
+		this.gameTimeUpdate = TimeManager.getInstance().getTimeAsMillis();
+	}
+
 	/**
-	 * Sets map size.
+	 * Gets the time of the game to display, extrapolated from the last game time with the TimeManager time so the
+	 * animations stay smooth between two updates of the game time.
 	 *
-	 * @param width  the width
-	 * @param height the height
+	 * @return the time as millis
 	 */
+	private synchronized long getRenderTime() {
+		long elapsedTime = TimeManager.getInstance().getTimeAsMillis() - this.gameTimeUpdate;
+		return this.gameTime + Math.min(Math.max(elapsedTime, 0), MAX_EXTRAPOLATION_MILLIS);
+	}
+
+	@Override
 	public void setMapSize(double width, double height) {
 		Platform.runLater(() -> this.mapView.setWidth(width));
 		Platform.runLater(() -> this.mapView.setHeight(height));
 	}
 
-	/**
-	 * Sets water.
-	 *
-	 * @param water the water
-	 */
+	@Override
 	public void setWater(MultiShape2d<Rectangle2d> water) {
 		Platform.runLater(() -> this.mapView.setWater(water));
 	}
 
-	/**
-	 * Create a train view.
-	 *
-	 * @param type the type
-	 * @return the train view
-	 */
+	@Override
 	public TrainView createTrainView(TrainType type) {
 		ConcreteTrainView concreteTrainView = new ConcreteTrainView(
 		  this.skin.newTrainView(type),
@@ -225,43 +261,38 @@ public class ViewManager implements MenuListener {
 		  Skin.TRAIN_VIEW_HEIGHT,
 		  this.skin.getTrainPassengerPositions(),
 		  this.skin,
-		  this.mapView);
-		Platform.runLater(() -> this.mapView.addTrain(concreteTrainView));
+		  this.mapView,
+		  this.viewCommandQueue);
+		this.viewCommandQueue.post(() -> {
+			this.mapView.addTrain(concreteTrainView);
+			this.trainViews.add(concreteTrainView);
+		});
 		return concreteTrainView;
 	}
 
-	/**
-	 * Create a station view .
-	 *
-	 * @param type the type
-	 * @return the station view
-	 */
+	@Override
 	public StationView createStationView(StationType type) {
 		ConcreteStationView concreteStationView = new ConcreteStationView(
 		  this.skin.newStationView(type),
 		  Skin.STATION_VIEW_WIDTH,
 		  Skin.STATION_VIEW_HEIGHT,
-		  this.skin);
-		Platform.runLater(() -> this.mapView.addStation(concreteStationView));
+		  this.skin,
+		  this.viewCommandQueue);
+		this.viewCommandQueue.post(() -> {
+			this.mapView.addStation(concreteStationView);
+			this.stationViews.add(concreteStationView);
+		});
 		return concreteStationView;
 	}
 
-	/**
-	 * Create a line view.
-	 *
-	 * @return the line view
-	 */
+	@Override
 	public LineView createLineView() {
 		ConcreteLineView concreteLineView = new ConcreteLineView(this.skin.getLineColor(this.currentLineNumber++));
 		this.mapView.addLine(concreteLineView);
 		return concreteLineView;
 	}
 
-	/**
-	 * Create a passenger car view.
-	 *
-	 * @return the passenger car view
-	 */
+	@Override
 	public PassengerCarView createPassengerCarView() {
 		ConcretePassengerCarView concretePassengerCarView = new ConcretePassengerCarView(
 		  this.skin.newPassengerCarView(),
@@ -283,20 +314,12 @@ public class ViewManager implements MenuListener {
 		return this.mainAnchorPane;
 	}
 
-	/**
-	 * Gets inventory view.
-	 *
-	 * @return the inventory view
-	 */
+	@Override
 	public InventoryView getInventoryView() {
 		return this.concreteInventoryView;
 	}
 
-	/**
-	 * Ask element choice.
-	 *
-	 * @param elementScripts the element scripts
-	 */
+	@Override
 	public void askElementChoice(List<Pair<ElementScript, Integer>> elementScripts) {
 		this.mapView.applyState();
 		Platform.runLater(() -> {
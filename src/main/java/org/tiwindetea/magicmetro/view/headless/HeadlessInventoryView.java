@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view.headless;
+
+import org.tiwindetea.magicmetro.view.InventoryView;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Headless InventoryView, record the content of the inventory instead of displaying it.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class HeadlessInventoryView implements InventoryView {
+
+	private int stationUpgrades = 0;
+	private int trains = 0;
+	private int passengerCars = 0;
+	private int tunnels = 0;
+	private final Set<Integer> availableLines = new HashSet<>();
+	private final Set<Integer> usedLines = new HashSet<>();
+
+	@Override
+	public void setStationUpgrades(int value) {
+		this.stationUpgrades = value;
+	}
+
+	@Override
+	public void setTrains(int value) {
+		this.trains = value;
+	}
+
+	@Override
+	public void setPassengerCars(int value) {
+		this.passengerCars = value;
+	}
+
+	@Override
+	public void setTunnels(int value) {
+		this.tunnels = value;
+	}
+
+	@Override
+	public void setAvailableLine(int lineId) {
+		this.availableLines.add(lineId);
+	}
+
+	@Override
+	public void setUsed(int lineId) {
+		this.usedLines.add(lineId);
+	}
+
+	@Override
+	public void setUnused(int lineId) {
+		this.usedLines.remove(lineId);
+	}
+
+	/**
+	 * Gets the number of station upgrades.
+	 *
+	 * @return the number of station upgrades
+	 */
+	public int getStationUpgrades() {
+		return this.stationUpgrades;
+	}
+
+	/**
+	 * Gets the number of trains.
+	 *
+	 * @return the number of trains
+	 */
+	public int getTrains() {
+		return this.trains;
+	}
+
+	/**
+	 * Gets the number of passenger cars.
+	 *
+	 * @return the number of passenger cars
+	 */
+	public int getPassengerCars() {
+		return this.passengerCars;
+	}
+
+	/**
+	 * Gets the number of tunnels.
+	 *
+	 * @return the number of tunnels
+	 */
+	public int getTunnels() {
+		return this.tunnels;
+	}
+
+	/**
+	 * Check if a line is available.
+	 *
+	 * @param lineId the line id
+	 * @return true if the line is available, false otherwise
+	 */
+	public boolean isAvailable(int lineId) {
+		return this.availableLines.contains(lineId);
+	}
+
+	/**
+	 * Check if a line is used.
+	 *
+	 * @param lineId the line id
+	 * @return true if the line is used, false otherwise
+	 */
+	public boolean isUsed(int lineId) {
+		return this.usedLines.contains(lineId);
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view.headless;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.view.PassengerCarView;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Headless PassengerCarView, record the state of the passenger car instead of displaying it.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class HeadlessPassengerCarView implements PassengerCarView {
+
+	public final int gameId;
+
+	private boolean visible = false;
+	private double rotation = 0;
+	private Point2d position = new Point2d();
+	private int passengersNumber = 0;
+
+	/**
+	 * Instantiates a new HeadlessPassengerCarView.
+	 *
+	 * @param gameId the game id
+	 */
+	public HeadlessPassengerCarView(int gameId) {
+		this.gameId = gameId;
+	}
+
+	@Override
+	public int getGameId() {
+		return this.gameId;
+	}
+
+	@Override
+	public void setVisible(boolean visibility) {
+		this.visible = visibility;
+	}
+
+	@Override
+	public void setRotation(double angle) {
+		this.rotation = angle;
+	}
+
+	@Override
+	public void setPosition(@Nonnull Point2d position) {
+		this.position = position;
+	}
+
+	@Override
+	public void addPassenger(@Nonnull StationType wantedStation) {
+		++this.passengersNumber;
+	}
+
+	@Override
+	public void removePassenger(@Nonnull StationType wantedStation) {
+		--this.passengersNumber;
+	}
+
+	/**
+	 * Check if the view is visible.
+	 *
+	 * @return true if the view is visible, false otherwise
+	 */
+	public boolean isVisible() {
+		return this.visible;
+	}
+
+	/**
+	 * Gets rotation.
+	 *
+	 * @return the rotation angle
+	 */
+	public double getRotation() {
+		return this.rotation;
+	}
+
+	/**
+	 * Gets position.
+	 *
+	 * @return the position
+	 */
+	public Point2d getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * Gets the number of passengers on board.
+	 *
+	 * @return the number of passengers
+	 */
+	public int getPassengersNumber() {
+		return this.passengersNumber;
+	}
+
+}
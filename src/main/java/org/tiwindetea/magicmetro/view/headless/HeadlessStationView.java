@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view.headless;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.global.util.Utils;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.view.StationView;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Headless StationView, record the state of the station instead of displaying it.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class HeadlessStationView implements StationView {
+
+	public final int gameId;
+	public final StationType type;
+
+	private Point2d position = new Point2d();
+	private int passengersNumber = 0;
+	private boolean warned = false;
+	private long warnStart = 0;
+	private long warnEnd = 0;
+
+	/**
+	 * Instantiates a new HeadlessStationView.
+	 *
+	 * @param gameId the game id
+	 * @param type   the station type
+	 */
+	public HeadlessStationView(int gameId, @Nonnull StationType type) {
+		this.gameId = gameId;
+		this.type = type;
+	}
+
+	@Override
+	public int getGameId() {
+		return this.gameId;
+	}
+
+	@Override
+	public void setPosition(@Nonnull Point2d position) {
+		this.position = position;
+	}
+
+	@Override
+	public void addPassenger(@Nonnull StationType wantedStation) {
+		++this.passengersNumber;
+	}
+
+	@Override
+	public void removePassenger(@Nonnull StationType wantedStation) {
+		--this.passengersNumber;
+	}
+
+	@Override
+	public void makeBigger() {
+		// nothing to display
+	}
+
+	@Override
+	public void warn(long warnStart, long warnEnd) {
+		this.warned = true;
+		this.warnStart = warnStart;
+		this.warnEnd = warnEnd;
+	}
+
+	@Override
+	public void unWard() {
+		this.warned = false;
+	}
+
+	/**
+	 * Gets position.
+	 *
+	 * @return the position
+	 */
+	public Point2d getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * Gets the number of passengers waiting in the station.
+	 *
+	 * @return the number of passengers
+	 */
+	public int getPassengersNumber() {
+		return this.passengersNumber;
+	}
+
+	/**
+	 * Check if the station is warned.
+	 *
+	 * @return true if the station is warned, false otherwise
+	 */
+	public boolean isWarned() {
+		return this.warned;
+	}
+
+	/**
+	 * Gets the warn value at a time of the game.
+	 *
+	 * @param time the time as millis
+	 * @return the warn value, between 0 and 1, 0 if the station is not warned
+	 */
+	public double getWarnValue(long time) {
+		if(!this.warned || (this.warnEnd <= this.warnStart)) {
+			return 0;
+		}
+		return Math.min(Math.max(Utils.map(time, this.warnStart, this.warnEnd, 0, 1), 0), 1);
+	}
+
+}
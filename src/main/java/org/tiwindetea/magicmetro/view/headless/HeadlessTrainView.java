@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view.headless;
+
+import org.arakhne.afc.math.geometry.d2.d.Point2d;
+import org.tiwindetea.magicmetro.global.util.Utils;
+import org.tiwindetea.magicmetro.view.TrainView;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Headless TrainView, record the state of the train instead of displaying it.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class HeadlessTrainView extends HeadlessPassengerCarView implements TrainView {
+
+	private int lineId;
+	private Point2d destination = new Point2d();
+	private long departureTime = 0;
+	private long arrivalTime = 0;
+
+	/**
+	 * Instantiates a new HeadlessTrainView.
+	 *
+	 * @param gameId the game id
+	 */
+	public HeadlessTrainView(int gameId) {
+		super(gameId);
+	}
+
+	@Override
+	public void setLine(int lineId) {
+		this.lineId = lineId;
+	}
+
+	@Override
+	public void setMovement(@Nonnull Point2d origin,
+	                        long departureTime,
+	                        @Nonnull Point2d destination,
+	                        long arrivalTime) {
+		setPosition(origin);
+		setRotation(Math.toDegrees(Math.atan2(destination.getY() - origin.getY(),
+		  destination.getX() - origin.getX())));
+		this.destination = destination;
+		this.departureTime = departureTime;
+		this.arrivalTime = arrivalTime;
+	}
+
+	/**
+	 * Gets the position at a time of the game, interpolated between the departure and the arrival of the last
+	 * movement.
+	 *
+	 * @param time the time as millis
+	 * @return the position
+	 */
+	public Point2d getPosition(long time) {
+		Point2d origin = getPosition();
+		if(this.arrivalTime <= this.departureTime) {
+			return this.destination;
+		}
+		double progress = Math.min(Math.max(Utils.map(time, this.departureTime, this.arrivalTime, 0, 1), 0), 1);
+		return new Point2d(origin.getX() + progress * (this.destination.getX() - origin.getX()),
+		  origin.getY() + progress * (this.destination.getY() - origin.getY()));
+	}
+
+	/**
+	 * Gets the id of the line of the train.
+	 *
+	 * @return the line id
+	 */
+	public int getLineId() {
+		return this.lineId;
+	}
+
+}
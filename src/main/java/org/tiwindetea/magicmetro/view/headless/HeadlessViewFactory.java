@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 TiWinDeTea - contact@tiwindetea.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.tiwindetea.magicmetro.view.headless;
+
+import org.arakhne.afc.math.geometry.d2.d.MultiShape2d;
+import org.arakhne.afc.math.geometry.d2.d.Rectangle2d;
+import org.tiwindetea.magicmetro.global.GameContext;
+import org.tiwindetea.magicmetro.global.eventdispatcher.events.InventoryElementAdditionEvent;
+import org.tiwindetea.magicmetro.global.scripts.ElementScript;
+import org.tiwindetea.magicmetro.global.util.Pair;
+import org.tiwindetea.magicmetro.model.StationType;
+import org.tiwindetea.magicmetro.model.TrainType;
+import org.tiwindetea.magicmetro.view.InventoryView;
+import org.tiwindetea.magicmetro.view.LineView;
+import org.tiwindetea.magicmetro.view.PassengerCarView;
+import org.tiwindetea.magicmetro.view.StationView;
+import org.tiwindetea.magicmetro.view.TrainView;
+import org.tiwindetea.magicmetro.view.ViewFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Headless ViewFactory, create views recording the state of the game without any graphical environment.<p>
+ * The views are kept in creation order, so a script can refer to the n-th station or line of a game. Element
+ * choices are answered immediately with the first proposed element.
+ *
+ * @author Maxime PINARD
+ * @since 0.1
+ */
+public class HeadlessViewFactory implements ViewFactory {
+
+	private final GameContext gameContext;
+	private final HeadlessInventoryView inventoryView = new HeadlessInventoryView();
+	private final List<HeadlessStationView> stationViews = new ArrayList<>();
+	private final List<HeadlessLineView> lineViews = new ArrayList<>();
+	private final List<HeadlessTrainView> trainViews = new ArrayList<>();
+	private final List<HeadlessPassengerCarView> passengerCarViews = new ArrayList<>();
+
+	private double mapWidth;
+	private double mapHeight;
+	private volatile long gameTime = 0;
+
+	/**
+	 * Instantiates a new HeadlessViewFactory in the default game context.
+	 */
+	public HeadlessViewFactory() {
+		this(GameContext.getDefault());
+	}
+
+	/**
+	 * Instantiates a new HeadlessViewFactory.
+	 *
+	 * @param gameContext the game context, giving the ids of the views and receiving the element choices
+	 */
+	public HeadlessViewFactory(@Nonnull GameContext gameContext) {
+		this.gameContext = gameContext;
+	}
+
+	@Override
+	public void setMapSize(double width, double height) {
+		this.mapWidth = width;
+		this.mapHeight = height;
+	}
+
+	@Override
+	public void setWater(MultiShape2d<Rectangle2d> water) {
+		// nothing to display
+	}
+
+	@Override
+	public void setGameTime(long timeMillis) {
+		this.gameTime = timeMillis;
+	}
+
+	@Override
+	public synchronized TrainView createTrainView(TrainType type) {
+		HeadlessTrainView trainView = new HeadlessTrainView(this.gameContext.getIdGenerator().nextId());
+		this.trainViews.add(trainView);
+		return trainView;
+	}
+
+	@Override
+	public synchronized StationView createStationView(StationType type) {
+		HeadlessStationView stationView = new HeadlessStationView(this.gameContext.getIdGenerator().nextId(), type);
+		this.stationViews.add(stationView);
+		return stationView;
+	}
+
+	@Override
+	public synchronized LineView createLineView() {
+		HeadlessLineView lineView = new HeadlessLineView(this.gameContext.getIdGenerator().nextId());
+		this.lineViews.add(lineView);
+		return lineView;
+	}
+
+	@Override
+	public synchronized PassengerCarView createPassengerCarView() {
+		HeadlessPassengerCarView passengerCarView = new HeadlessPassengerCarView(this.gameContext.getIdGenerator().nextId());
+		this.passengerCarViews.add(passengerCarView);
+		return passengerCarView;
+	}
+
+	@Override
+	public InventoryView getInventoryView() {
+		return this.inventoryView;
+	}
+
+	@Override
+	public void askElementChoice(List<Pair<ElementScript, Integer>> elementScripts) {
+		if(!elementScripts.isEmpty()) {
+			Pair<ElementScript, Integer> elementScript = elementScripts.get(0);
+			this.gameContext.getEventDispatcher()
+			  .fire(new InventoryElementAdditionEvent(elementScript.getLeft(), elementScript.getRight()));
+		}
+	}
+
+	/**
+	 * Gets map width.
+	 *
+	 * @return the map width
+	 */
+	public double getMapWidth() {
+		return this.mapWidth;
+	}
+
+	/**
+	 * Gets map height.
+	 *
+	 * @return the map height
+	 */
+	public double getMapHeight() {
+		return this.mapHeight;
+	}
+
+	/**
+	 * Gets the time of the game.
+	 *
+	 * @return the time as millis
+	 */
+	public long getGameTime() {
+		return this.gameTime;
+	}
+
+	/**
+	 * Gets the headless inventory view.
+	 *
+	 * @return the inventory view
+	 */
+	public HeadlessInventoryView getHeadlessInventoryView() {
+		return this.inventoryView;
+	}
+
+	/**
+	 * Gets the station views, in creation order.
+	 *
+	 * @return the station views
+	 */
+	public synchronized List<HeadlessStationView> getStationViews() {
+		return Collections.unmodifiableList(new ArrayList<>(this.stationViews));
+	}
+
+	/**
+	 * Gets the line views, in creation order.
+	 *
+	 * @return the line views
+	 */
+	public synchronized List<HeadlessLineView> getLineViews() {
+		return Collections.unmodifiableList(new ArrayList<>(this.lineViews));
+	}
+
+	/**
+	 * Gets the train views, in creation order.
+	 *
+	 * @return the train views
+	 */
+	public synchronized List<HeadlessTrainView> getTrainViews() {
+		return Collections.unmodifiableList(new ArrayList<>(this.trainViews));
+	}
+
+	/**
+	 * Gets the passenger car views, in creation order.
+	 *
+	 * @return the passenger car views
+	 */
+	public synchronized List<HeadlessPassengerCarView> getPassengerCarViews() {
+		return Collections.unmodifiableList(new ArrayList<>(this.passengerCarViews));
+	}
+
+}
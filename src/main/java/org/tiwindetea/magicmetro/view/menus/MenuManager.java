@@ -25,21 +25,33 @@
 package org.tiwindetea.magicmetro.view.menus;
 
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
+import org.tiwindetea.magicmetro.global.GameContext;
 import org.tiwindetea.magicmetro.global.TimeManager;
 import org.tiwindetea.magicmetro.global.eventdispatcher.EventDispatcher;
 import org.tiwindetea.magicmetro.global.eventdispatcher.EventListener;
 import org.tiwindetea.magicmetro.global.eventdispatcher.events.FullScreenToggleEvent;
 import org.tiwindetea.magicmetro.global.scripts.MapScript;
 import org.tiwindetea.magicmetro.model.GameManager;
+import org.tiwindetea.magicmetro.model.journal.EventJournalWriter;
+import org.tiwindetea.magicmetro.model.journal.JournalViewFactory;
 import org.tiwindetea.magicmetro.view.ViewManager;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Random;
 import java.util.Stack;
 
 /**
- * Class that manage the different menus .
+ * Class that manage the different menus .<p>
+ * When the {@code magicmetro.journal} system property is set, each launched game is recorded by an
+ * {@link EventJournalWriter} in the first free file named from the property and a game number, {@code file-1},
+ * {@code file-2} and so on.
  *
  * @author Maxime PINARD
  * @since 0.1
@@ -48,6 +60,7 @@ public class MenuManager implements MenuController {
 
 	private static final double SCENE_INITIAL_WIDTH = 1280;
 	private static final double SCENE_INITIAL_HEIGHT = 720;
+	private static final String JOURNAL_PROPERTY = "magicmetro.journal";
 
 	private final EventListener<FullScreenToggleEvent> onFullScreenToggleEvent = new EventListener<FullScreenToggleEvent>() {
 		@Override
@@ -63,6 +76,7 @@ public class MenuManager implements MenuController {
 
 	private final Stack<Menu> menuQueue = new Stack<>();
 	private Menu currentMenu;
+	private EventJournalWriter eventJournalWriter = null; // kept as the event dispatcher only weakly references it
 
 	/**
 	 * Instantiates a new MenuManager.
@@ -118,13 +132,61 @@ public class MenuManager implements MenuController {
 
 	@Override
 	public void launchGame(MapScript mapScript) {
+		String journalFile = System.getProperty(JOURNAL_PROPERTY);
+		OutputStream journalOutputStream = null;
+		if(journalFile != null) {
+			try {
+				journalOutputStream = createJournalOutputStream(journalFile);
+			} catch(IOException e) {
+				e.printStackTrace();
+				Alert alert = new Alert(Alert.AlertType.ERROR,
+				  "The game can't be recorded in " + journalFile + ": " + e.getMessage());
+				alert.initOwner(this.stage);
+				alert.showAndWait();
+				return;
+			}
+		}
+
 		this.menuQueue.push(this.currentMenu);
 		ViewManager viewManager = new ViewManager(this);
-		GameManager gameManager = new GameManager(viewManager, mapScript);
+		if(journalOutputStream == null) {
+			this.eventJournalWriter = null;
+			new GameManager(viewManager, mapScript);
+		}
+		else {
+			long seed = new Random().nextLong();
+			JournalViewFactory journalViewFactory = new JournalViewFactory(viewManager, true);
+			this.eventJournalWriter = new EventJournalWriter(journalOutputStream, mapScript, journalViewFactory, seed);
+			GameManager gameManager = new GameManager(GameContext.getDefault(),
+			  journalViewFactory,
+			  mapScript,
+			  seed,
+			  this.eventJournalWriter,
+			  true);
+			this.eventJournalWriter.record(gameManager);
+		}
 		TimeManager.getInstance().reset();
 		TimeManager.getInstance().setSpeed(1);
 		TimeManager.getInstance().start();
 		this.scene.setRoot(viewManager.getRoot());
 	}
 
+	/**
+	 * Create the output stream of the journal of a new game, in the first free file named from the journal file
+	 * and a game number, so the journals of the previous games are kept.
+	 *
+	 * @param journalFile the journal file
+	 * @return the output stream
+	 * @throws IOException if the file could not be created
+	 */
+	private static OutputStream createJournalOutputStream(String journalFile) throws IOException {
+		int game = 1;
+		File file = new File(journalFile + "-" + game);
+		while(!file.createNewFile()) {
+			++game;
+			file = new File(journalFile + "-" + game);
+		}
+		return new FileOutputStream(file);
+	}
+
 }